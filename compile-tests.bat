@@ -0,0 +1,41 @@
+@echo off
+REM Compile stress tests & benchmarks (test\) ke test-bin, terpisah dari bin
+
+echo ========================================
+echo Compiling Tests and Benchmarks
+echo ========================================
+
+if not exist "bin\main\ChatApplication.class" (
+    echo Error: Application not compiled yet!
+    echo Please run compile.bat first.
+    echo.
+    pause
+    exit /b 1
+)
+
+if not exist "test-bin" mkdir test-bin
+
+echo Compiling test sources...
+REM Satu pola per package di test\ (test\model\*.java, test\service\*.java, ...)
+set SOURCES=
+for /d %%d in (test\*) do call set SOURCES=%%SOURCES%% %%d\*.java
+javac -cp bin -d test-bin %SOURCES%
+
+if %ERRORLEVEL% EQU 0 (
+    echo.
+    echo ========================================
+    echo Compilation successful!
+    echo ========================================
+    echo.
+    echo Run a test or benchmark, e.g.:
+    echo   java -cp bin;test-bin model.StockStressTest
+    echo.
+) else (
+    echo.
+    echo ========================================
+    echo Compilation failed!
+    echo ========================================
+    echo Please check for errors above.
+)
+
+pause
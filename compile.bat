@@ -10,7 +10,7 @@ if not exist "bin" mkdir bin
 
 REM Compile all Java files
 echo Compiling source files...
-javac -d bin src\model\*.java src\service\*.java src\controller\*.java src\ui\*.java src\main\*.java
+javac -d bin src\model\*.java src\service\*.java src\controller\*.java src\gateway\*.java src\ui\*.java src\main\*.java
 
 if %ERRORLEVEL% EQU 0 (
     echo.
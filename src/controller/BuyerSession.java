@@ -0,0 +1,118 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import model.Money;
+
+/**
+ * BuyerSession - State milik satu buyer: request, keranjang, penawaran pending
+ *
+ * Semua field yang bisa berubah hanya disentuh di bawah lock shard
+ * SessionStore tempat sesi ini tinggal (lewat withSession / ifPresent).
+ */
+public final class BuyerSession {
+
+    private final String  id;
+    private final boolean pinned;      // tidak pernah di-evict (mis. buyer di jendela Swing)
+    private final long    createdAt;
+    private volatile long lastActivity;
+
+    final CartStore             cart            = new CartStore();
+    private final StringBuilder lineBuffer      = new StringBuilder(64); // render baris keranjang
+    private long                cartVersion;    // naik 1 tiap putCartLine
+    final Set<Integer>          requestIds      = new LinkedHashSet<>();
+    final Set<Integer>          pendingOrderIds = new LinkedHashSet<>();
+
+    // Semua id request yang pernah dibuat sesi ini, termasuk yang sudah diarsip (Choose tetap boleh).
+    // Id global naik dan dibuat di bawah lock shard, jadi array ini selalu urut naik
+    private int[] ownedIds = new int[8];
+    private int   ownedCount;
+
+    BuyerSession(String id, boolean pinned, long now) {
+        this.id           = id;
+        this.pinned       = pinned;
+        this.createdAt    = now;
+        this.lastActivity = now;
+    }
+
+    public String  getId()           { return id; }
+    public boolean isPinned()        { return pinned; }
+    public long    getCreatedAt()    { return createdAt; }
+    public long    getLastActivity() { return lastActivity; }
+
+    void touch(long now) {
+        lastActivity = now;
+    }
+
+    /**
+     * Ganti / tambah satu baris keranjang; grand total disesuaikan dengan
+     * selisih baris lama, tanpa menjumlah ulang seluruh keranjang.
+     *
+     * @return teks baris ("• judul  xN  =  Rp ...")
+     */
+    String putCartLine(int requestId, int formIndex, String message, int qty, Money unitPrice) {
+        // Judul = baris pertama pesan (di-trim); pilih ulang baris yang sama memakai String yang sudah ada
+        int end = message.indexOf('\n');
+        if (end < 0) end = message.length();
+        int start = 0;
+        while (start < end && message.charAt(start) <= ' ') start++;
+        while (end > start && message.charAt(end - 1) <= ' ') end--;
+
+        long key = CartStore.key(requestId, formIndex);
+        int  row = cart.indexOf(key);
+        String title = row >= 0 ? cart.titleAt(row) : null;
+        if (title == null || title.length() != end - start || !message.regionMatches(start, title, 0, end - start)) {
+            title = message.substring(start, end);
+        }
+        long unitMinor = unitPrice.getMinorUnits();
+        cart.put(key, title, qty, unitMinor);
+        cartVersion++;
+        return renderLine(title, qty, unitMinor);
+    }
+
+    long getCartVersion() {
+        return cartVersion;
+    }
+
+    /** Seluruh keranjang + versinya, untuk consumer yang harus render ulang (panggil di bawah lock shard) */
+    CartSnapshot cartSnapshot() {
+        List<CartSnapshot.Line> lines = new ArrayList<>(cart.size());
+        for (int row = 0; row < cart.size(); row++) {
+            long key  = cart.keyAt(row);
+            int  qty  = cart.quantityAt(row);
+            long unit = cart.unitPriceMinorAt(row);
+            lines.add(new CartSnapshot.Line((int) (key >>> 8), (int) (key & 0xFF),
+                    renderLine(cart.titleAt(row), qty, unit), qty, unit * qty));
+        }
+        return new CartSnapshot(cartVersion, lines, cart.hasPricedLine() ? cart.getTotalMinor() : -1);
+    }
+
+    /** "• judul  xN  =  Rp ..." */
+    private String renderLine(String title, int qty, long unitMinor) {
+        StringBuilder sb = lineBuffer;
+        sb.setLength(0);
+        sb.append("• ").append(title).append("  x").append(qty);
+        if (unitMinor > 0) Money.ofMinor(unitMinor * qty).appendRupiah(sb.append("  =  "));
+        return sb.toString();
+    }
+
+    /** Request baru milik sesi ini (panggil di bawah lock shard) */
+    void addRequest(int requestId) {
+        requestIds.add(requestId);
+        if (ownedCount == ownedIds.length) ownedIds = Arrays.copyOf(ownedIds, ownedCount * 2);
+        ownedIds[ownedCount++] = requestId;
+    }
+
+    /** @return true jika request ini pernah dibuat sesi ini, aktif maupun sudah diarsip */
+    boolean ownsRequest(int requestId) {
+        return Arrays.binarySearch(ownedIds, 0, ownedCount, requestId) >= 0;
+    }
+
+    /** Salinan id request milik sesi ini (panggil di bawah lock shard) */
+    List<Integer> requestIdsSnapshot() {
+        return new ArrayList<>(requestIds);
+    }
+}
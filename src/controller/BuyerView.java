@@ -0,0 +1,33 @@
+package controller;
+
+import model.Money;
+
+/**
+ * BuyerView - Tampilan buyer yang diisi controller
+ *
+ * Diimplementasikan BuyerPanel (Swing) atau listener headless. Semua method
+ * dipanggil di UI executor milik controller.
+ */
+public interface BuyerView {
+
+    void setController(ChatController controller);
+
+    /** Alamat pengiriman untuk ringkasan pesanan, string kosong jika belum diisi */
+    String getAddress();
+
+    void displayBuyerMessage(String message);
+
+    void displayWaitingMessage(String requestLabel, int requestId, int formIndex);
+
+    void replaceSpecificWaitingBubble(int requestId, int formIndex, String response);
+
+    /**
+     * Satu baris ringkasan pesanan berubah; baris lain tidak perlu dirender ulang.
+     *
+     * @param lineText   baris yang sudah dirender ("• judul  xN  =  Rp ...")
+     * @param grandTotal total keranjang, null kalau belum ada item berharga
+     */
+    void updateCartLine(int requestId, int formIndex, String lineText, Money grandTotal);
+
+    void clearChat();
+}
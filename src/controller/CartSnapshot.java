@@ -0,0 +1,55 @@
+package controller;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CartSnapshot - Salinan immutable keranjang satu buyer
+ *
+ * Dipakai untuk render ulang seluruh keranjang saat consumer CART_CHANGED
+ * melihat cartVersion loncat (event tidak sampai, mis. antrean SSE penuh).
+ * Baris urut waktu pertama dipilih; nominal dalam minor unit.
+ */
+public final class CartSnapshot {
+
+    public static final CartSnapshot EMPTY = new CartSnapshot(0, Collections.<Line>emptyList(), -1);
+
+    public static final class Line {
+        private final int    requestId;
+        private final int    formIndex;
+        private final String text;
+        private final int    quantity;
+        private final long   lineMinor;
+
+        Line(int requestId, int formIndex, String text, int quantity, long lineMinor) {
+            this.requestId = requestId;
+            this.formIndex = formIndex;
+            this.text      = text;
+            this.quantity  = quantity;
+            this.lineMinor = lineMinor;
+        }
+
+        public int    getRequestId() { return requestId; }
+        public int    getFormIndex() { return formIndex; }
+        public String getText()      { return text; }
+        public int    getQuantity()  { return quantity; }
+        /** 0 = belum ada harga */
+        public long   getLineMinor() { return lineMinor; }
+    }
+
+    private final long       version;
+    private final List<Line> lines;
+    private final long       totalMinor;
+
+    CartSnapshot(long version, List<Line> lines, long totalMinor) {
+        this.version    = version;
+        this.lines      = Collections.unmodifiableList(lines);
+        this.totalMinor = totalMinor;
+    }
+
+    /** Sama dengan cartVersion CART_CHANGED terakhir yang sudah termasuk di snapshot ini */
+    public long       getVersion()    { return version; }
+    public List<Line> getLines()      { return lines; }
+    /** -1 = belum ada baris berharga */
+    public long       getTotalMinor() { return totalMinor; }
+}
@@ -0,0 +1,116 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * CartStore - Keranjang satu buyer dalam array primitif
+ *
+ * Key baris = requestId << 8 | formIndex (satu long, tanpa String). Data
+ * baris disimpan di array paralel berurutan sesuai waktu pertama dipilih,
+ * jadi urutan ringkasan tetap seperti LinkedHashMap. Index hash
+ * (open addressing, linear probe) hanya menyimpan posisi baris + 1.
+ *
+ * Yang disimpan hanya yang dibutuhkan ringkasan: referensi judul, qty dan
+ * harga satuan dalam minor unit. Grand total dijaga tiap put.
+ *
+ * Tidak thread-safe; BuyerSession memakainya di bawah lock shard.
+ */
+final class CartStore {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    // Baris, urut insert
+    private long[]   keys      = new long[INITIAL_CAPACITY];
+    private String[] titles    = new String[INITIAL_CAPACITY];
+    private int[]    qty       = new int[INITIAL_CAPACITY];
+    private long[]   unitMinor = new long[INITIAL_CAPACITY];
+    private int      size;
+
+    // Index hash: slot -> posisi baris + 1 (0 = kosong)
+    private int[] index = new int[INITIAL_CAPACITY * 2];
+
+    private long totalMinor;
+    private int  pricedLines;
+
+    static long key(int requestId, int formIndex) {
+        return ((long) requestId << 8) | (formIndex & 0xFF);
+    }
+
+    /**
+     * Ganti / tambah satu baris.
+     *
+     * @return posisi baris (urut insert)
+     */
+    int put(long key, String title, int quantity, long unitPriceMinor) {
+        int slot = find(key);
+        int row  = index[slot] - 1;
+        if (row < 0) {
+            if (size == keys.length) grow();
+            row = size++;
+            keys[row] = key;
+            if (size * 2 > index.length) rehash(index.length * 2);
+            else index[slot] = row + 1;
+        } else {
+            totalMinor -= qty[row] * unitMinor[row];
+            if (unitMinor[row] > 0) pricedLines--;
+        }
+        titles[row]    = title;
+        qty[row]       = quantity;
+        unitMinor[row] = unitPriceMinor;
+        if (unitPriceMinor > 0) {
+            totalMinor += quantity * unitPriceMinor;
+            pricedLines++;
+        }
+        return row;
+    }
+
+    /** @return posisi baris, atau -1 */
+    int indexOf(long key) {
+        return index[find(key)] - 1;
+    }
+
+    int    size()                 { return size; }
+    long   keyAt(int row)         { return keys[row]; }
+    String titleAt(int row)       { return titles[row]; }
+    int    quantityAt(int row)    { return qty[row]; }
+    long   unitPriceMinorAt(int row) { return unitMinor[row]; }
+
+    long getTotalMinor()   { return totalMinor; }
+    boolean hasPricedLine() { return pricedLines > 0; }
+
+    void clear() {
+        Arrays.fill(titles, 0, size, null);
+        Arrays.fill(index, 0);
+        size = 0;
+        totalMinor = 0;
+        pricedLines = 0;
+    }
+
+    /** Slot berisi key ini, atau slot kosong tempat key ini seharusnya */
+    private int find(long key) {
+        int mask = index.length - 1;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (true) {
+            int row = index[slot] - 1;
+            if (row < 0 || keys[row] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        int n = keys.length * 2;
+        keys      = Arrays.copyOf(keys, n);
+        titles    = Arrays.copyOf(titles, n);
+        qty       = Arrays.copyOf(qty, n);
+        unitMinor = Arrays.copyOf(unitMinor, n);
+    }
+
+    /** Bangun ulang index (baris yang baru di-append ikut masuk) */
+    private void rehash(int capacity) {
+        index = new int[capacity];
+        for (int row = 0; row < size; row++) {
+            index[find(keys[row])] = row + 1;
+        }
+    }
+}
@@ -1,89 +1,299 @@
 package controller;
 
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import javax.swing.Timer;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.ArchivedRequest;
 import model.ChatRequest;
+import model.Money;
+import service.EventLog;
 import service.SellerAIService;
-import ui.BuyerPanel;
-import ui.SellerPanel;
 
 /**
  * ChatController - Mediator Pattern
  *
  * PERUBAHAN:
- * - Support 3 seller (sellerPanels List)
+ * - Seller bisa bergabung/keluar saat runtime (sellerPanels, key = sellerIndex)
  * - Buyer broadcast pesan ke SEMUA seller
+ * - Banyak buyer sekaligus: keranjang, request & penawaran per sesi buyer
  * - Setiap seller reply secara independen ke buyer
+ * - Tidak bergantung pada Swing: panel di balik BuyerView/SellerView, semua
+ *   update dijalankan di UI executor (EDT untuk GUI, satu thread untuk headless)
+ * - Pesan & Choose buyer boleh dari thread mana pun: di-serialize per sesi oleh
+ *   lock shard SessionStore, bukan oleh UI executor
  */
 public class ChatController {
 
-    private BuyerPanel        buyerPanel;
-    private List<SellerPanel> sellerPanels  = new ArrayList<>();
+    private BuyerView         buyerPanel;
+    // sellerIndex -> panel. Concurrent supaya registrasi dari thread mana pun langsung terlihat di UI executor;
+    // urut index supaya broadcast selalu dengan urutan yang sama
+    private ConcurrentSkipListMap<Integer, SellerView> sellerPanels = new ConcurrentSkipListMap<>();
+    private AtomicInteger nextSellerIndex = new AtomicInteger();
 
-    private List<ChatRequest> activeRequests;
-    private int               requestIdCounter;
+    private RequestRegistry   activeRequests;
+    private AtomicInteger     requestIdCounter = new AtomicInteger(1); // global untuk semua sesi, tidak pernah di-reset
 
-    private Map<String, CartItem> cart = new LinkedHashMap<>();
+    // cartVersion CART_CHANGED terakhir yang sudah tampil di buyerPanel (UI executor saja)
+    private long localCartVersion;
+
+    /** Sesi buyer di jendela Swing; tidak pernah di-evict */
+    public static final String LOCAL_SESSION_ID = "local";
+    public static final long   DEFAULT_SESSION_IDLE_MILLIS = 30 * 60 * 1000L;
+    private static final int   SESSION_SHARDS = 64;
+
+    // Keranjang, request & penawaran pending per buyer; di-shard supaya buyer berbeda tidak saling tunggu
+    private SessionStore sessions;
+
+    // Naik tiap clearAllChats(); hasil AI Fill All dari epoch lama dibuang (UI executor saja)
+    private int clearEpoch;
+    private final Set<CompletableFuture<?>> fillAllInFlight = new HashSet<>();
+
+    /** Default retensi request RESPONDED di daftar aktif */
+    public static final long DEFAULT_RETENTION_MAX_AGE_MILLIS = 30 * 60 * 1000L;
+    public static final int  DEFAULT_RETENTION_MAX_RESPONDED  = 50;
+    public static final int  DEFAULT_ARCHIVE_CAPACITY         = 10_000;
+    private static final int RETENTION_CHECK_MILLIS           = 30 * 1000;
+
+    // Request RESPONDED yang melewati batas umur/jumlah dipindah ke sini (terlama dibuang)
+    private long  retentionMaxAgeMillis = DEFAULT_RETENTION_MAX_AGE_MILLIS;
+    private int   retentionMaxResponded = DEFAULT_RETENTION_MAX_RESPONDED;
+    private int   archiveCapacity       = DEFAULT_ARCHIVE_CAPACITY;
+    private Deque<ArchivedRequest> archive = new ArrayDeque<>();
+
+    // Semua state controller hanya disentuh di uiExecutor; timer hanya memindahkan tugas ke sana
+    private final Executor                 uiExecutor;
+    private final ScheduledExecutorService timer;
+
+    // Request yang baru RESPONDED, urut saat lengkap dijawab; kandidat arsip (UI executor saja)
+    private final Deque<ChatRequest> responded = new ArrayDeque<>();
+
+    // Perkiraan memori request yang diarsip: sebagai ChatRequest aktif vs sebagai ArchivedRequest
+    private long batchBytesBefore, batchBytesAfter;       // batch yang sedang diarsip
+    private long archivedBytesBefore, archivedBytesAfter; // kumulatif
+
+    /** Form per request: explanation, price, stock — satu bubble waiting per form */
+    private static final int FORM_COUNT = 3;
+
+    /** Jeda antar bubble "Waiting for seller data" (form 1, 2, 3) */
+    private static final int WAITING_STAGGER_MILLIS = 500;
+    private PlaceholderScheduler waitingPlaceholders;
+    private String[] waitingLabels = new String[0]; // "seller data N", dibuat sekali per slot
 
     private SellerAIService aiService;
 
-    // ──────────────────────────────────────────────────────────
-    private static class CartItem {
-        String message;
-        int    quantity;
-        double unitPrice;
-        CartItem(String msg, int qty, double price) {
-            this.message = msg; this.quantity = qty; this.unitPrice = price;
-        }
+    /** Folder log controller (relatif ke working directory) */
+    public static final String LOG_DIR = "logs";
+
+    // Log terstruktur asinkron: format + I/O di thread writer, bukan di UI executor
+    private final EventLog log;
+
+    /** Interval baris snapshot "latency" di log */
+    public static final long METRICS_SNAPSHOT_MILLIS = 60 * 1000L;
+
+    // Histogram latensi per tahap request & per seller (JMX + snapshot berkala)
+    private final LatencyMetrics metrics;
+
+    /** Default jeda minimal antar generate untuk form yang sama (per seller bisa diubah) */
+    public static final long DEFAULT_SUGGESTION_DEBOUNCE_MILLIS = 400;
+
+    // AI suggestion yang sedang dikerjakan + debounce klik ganda (hanya dari UI executor)
+    private SuggestionCoalescer suggestions = new SuggestionCoalescer(DEFAULT_SUGGESTION_DEBOUNCE_MILLIS);
+
+    // Semua update panel lewat ring buffer; consumer buyer & seller di-drain terpisah di UI executor
+    private ChatEventBus              eventBus;
+    private ChatEventBus.Subscription buyerSubscription;
+    private ChatEventBus.Subscription sellerSubscription;
+
+    // Pesan buyer hanya dikirim ke seller yang katalognya cocok (fallback: semua)
+    private SellerRouter router = new SellerRouter();
+
+    /**
+     * @param uiExecutor thread tempat state controller dan semua view disentuh
+     *                   (GUI: {@code SwingUtilities::invokeLater}; headless: executor satu thread)
+     */
+    public ChatController(Executor uiExecutor) {
+        this(uiExecutor, DEFAULT_SESSION_IDLE_MILLIS);
     }
 
-    public ChatController() {
-        this.activeRequests   = new ArrayList<>();
-        this.requestIdCounter = 1;
+    /** @param sessionIdleMillis sesi buyer (selain lokal) yang diam selama ini di-evict */
+    public ChatController(Executor uiExecutor, long sessionIdleMillis) {
+        this(uiExecutor, sessionIdleMillis, new EventLog("chat-controller", Paths.get(LOG_DIR), EventLog.Level.INFO));
+    }
+
+    public ChatController(Executor uiExecutor, long sessionIdleMillis, EventLog log) {
+        this.log              = log;
+        this.metrics          = new LatencyMetrics(log);
+        this.uiExecutor       = metrics.timed(uiExecutor);
+        this.timer            = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-controller-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.activeRequests   = new RequestRegistry();
+        this.sessions         = new SessionStore(SESSION_SHARDS, sessionIdleMillis, this::onSessionEvicted, log);
+        sessions.pin(LOCAL_SESSION_ID);
         this.aiService        = new SellerAIService();
+        this.eventBus         = new ChatEventBus(this.uiExecutor, log);
+        this.sellerSubscription = eventBus.subscribe("sellers", this::dispatchToSellers);
+
+        // Penawaran yang tidak dikonfirmasi sampai TTL: stoknya sudah dilepas service
+        aiService.setPendingOrderListener((reqId, productName, qty) -> {
+            ChatRequest r = activeRequests.get(reqId);
+            if (r != null) sessions.ifPresent(r.getSessionId(), s -> s.pendingOrderIds.remove(reqId));
+            log.info("order_expired").field("req", reqId).field("product", productName)
+                    .field("qty", qty).commit();
+        });
+
+        // Batas umur tetap dicek walau tidak ada submit baru
+        timer.scheduleWithFixedDelay(() -> this.uiExecutor.execute(this::archiveRespondedRequests),
+                RETENTION_CHECK_MILLIS, RETENTION_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+
+        // MBeanServer dibuat di belakang supaya tidak menambah waktu startup
+        timer.execute(metrics::startJmx);
+
+        // Histogram lock-free: dibaca langsung di thread timer
+        timer.scheduleWithFixedDelay(metrics::logSnapshot,
+                METRICS_SNAPSHOT_MILLIS, METRICS_SNAPSHOT_MILLIS, TimeUnit.MILLISECONDS);
+
+        waitingPlaceholders = new PlaceholderScheduler(WAITING_STAGGER_MILLIS, this::showWaitingPlaceholder,
+                timer, this.uiExecutor);
+    }
+
+    /** Hentikan timer, evictor sesi dan thread pool AI, tulis snapshot latensi terakhir, lalu flush log */
+    public void shutdown() {
+        timer.shutdownNow();
+        sessions.shutdown();
+        aiService.shutdown();
+        metrics.logSnapshot();
+        metrics.close();
+        log.close();
+    }
+
+    public EventLog getEventLog() {
+        return log;
+    }
+
+    public LatencyMetrics getLatencyMetrics() {
+        return metrics;
     }
 
     // ──────────────────────────────────────────────────────────
     //  Registrasi panel
     // ──────────────────────────────────────────────────────────
-    public void setBuyerPanel(BuyerPanel bp) {
+    public void setBuyerPanel(BuyerView bp) {
         this.buyerPanel = bp;
         bp.setController(this);
+        if (buyerSubscription == null) buyerSubscription = eventBus.subscribe("buyer", this::dispatchToBuyer);
     }
 
-    /** Tambah seller panel — dipanggil 3x dari ChatApplication */
-    public void addSellerPanel(SellerPanel sp) {
-        sellerPanels.add(sp);
+    /** Index untuk seller baru (unik, tidak dipakai ulang selama controller hidup) */
+    public int allocateSellerIndex() {
+        return nextSellerIndex.getAndIncrement();
+    }
+
+    /** Daftarkan seller panel; seller mulai menerima pesan buyer berikutnya. Boleh dari thread mana pun. */
+    public void addSellerPanel(SellerView sp) {
+        int idx = sp.getSellerIndex();
+        nextSellerIndex.accumulateAndGet(idx + 1, Math::max); // index manual tidak bentrok dengan allocate
         sp.setController(this);
+        router.addSeller(idx);
+        sellerPanels.put(idx, sp);
+        log.info("seller_joined").field("seller", idx).field("name", sp.getSellerName())
+                .field("sellers", sellerPanels.size()).commit();
+    }
+
+    /** Seller keluar: tidak menerima pesan lagi, jawaban yang masih diproses dibuang (UI executor) */
+    public void removeSellerPanel(int sellerIndex) {
+        SellerView sp = sellerPanels.remove(sellerIndex);
+        if (sp == null) return;
+        router.removeSeller(sellerIndex);
+        sellersPendingLayout.remove(sp);
+        metrics.removeSeller(sellerIndex);
+        log.info("seller_left").field("seller", sellerIndex).field("name", sp.getSellerName())
+                .field("sellers", sellerPanels.size()).commit();
+    }
+
+    public int getSellerCount() {
+        return sellerPanels.size();
+    }
+
+    /**
+     * Produk yang dijual seller ini. Pesan yang menyebut produk hanya dikirim ke
+     * seller yang menjualnya; katalog kosong = seller menerima semua pesan.
+     * Boleh dari thread mana pun; berlaku untuk pesan berikutnya.
+     */
+    public void setSellerCatalog(int sellerIndex, Collection<String> productNames) {
+        router.setCatalog(sellerIndex, productNames);
     }
 
     // ──────────────────────────────────────────────────────────
     //  Buyer kirim pesan → broadcast ke SEMUA seller
     // ──────────────────────────────────────────────────────────
     public void onBuyerMessageSent(String message) {
-        ChatRequest request = new ChatRequest(requestIdCounter++, message);
-        request.setStatus(ChatRequest.Status.WAITING);
-        activeRequests.add(request);
+        onBuyerMessageSent(LOCAL_SESSION_ID, message);
+    }
 
-        buyerPanel.displayBuyerMessage(message);
+    /**
+     * Pesan dari buyer pada sesi tertentu. Boleh dari thread mana pun: router,
+     * registry dan event bus thread-safe, dan request dibuat + di-publish di
+     * bawah lock shard sesinya, jadi pesan satu sesi keluar urut sementara sesi
+     * lain jalan paralel.
+     *
+     * @return id request baru
+     */
+    public int onBuyerMessageSent(String sessionId, String message) {
+        int[] targets = router.route(message); // hanya baca snapshot router, tidak perlu lock sesi
+        ChatRequest request = sessions.withSession(sessionId, s -> {
+            ChatRequest r = new ChatRequest(requestIdCounter.getAndIncrement(), sessionId, message);
+            r.setStatus(ChatRequest.Status.WAITING);
+            s.addRequest(r.getRequestId());
+            activeRequests.register(r);
+            // Ke buyer (bubble pesan) dan seller yang bisa memenuhi (form request)
+            eventBus.publish(ChatEvent.Type.MESSAGE_SENT, r.getRequestId(), 0, -1, message, r, targets);
+            return r;
+        });
+
+        // Bubble waiting form 1, 2, 3 muncul bertahap (500 ms, 1000 ms, 1500 ms) — hanya di panel buyer lokal.
+        // Scheduler milik UI executor; request yang sudah terhapus clear tidak dijadwalkan lagi.
+        if (isLocal(sessionId)) {
+            uiExecutor.execute(() -> {
+                if (activeRequests.get(request.getRequestId()) == request) {
+                    waitingPlaceholders.schedule(request.getRequestId(), FORM_COUNT);
+                }
+            });
+        }
 
-        Timer t1 = new Timer(500,  e -> buyerPanel.displayWaitingMessage("seller data 1", request.getRequestId(), 1));
-        Timer t2 = new Timer(1000, e -> buyerPanel.displayWaitingMessage("seller data 2", request.getRequestId(), 2));
-        Timer t3 = new Timer(1500, e -> buyerPanel.displayWaitingMessage("seller data 3", request.getRequestId(), 3));
-        t1.setRepeats(false); t1.start();
-        t2.setRepeats(false); t2.start();
-        t3.setRepeats(false); t3.start();
+        log.info(targets == null ? "broadcast" : "route").field("req", request.getRequestId())
+                .field("session", sessionId).field("sellers", targets == null ? sellerPanels.size() : targets.length)
+                .field("message", message).commit();
+        return request.getRequestId();
+    }
 
-        // Broadcast ke semua seller
-        for (SellerPanel sp : sellerPanels) {
-            sp.addRequest(request);
+    private void showWaitingPlaceholder(int requestId, int sellerSlot) {
+        if (buyerPanel == null) return;
+        if (sellerSlot > waitingLabels.length) {
+            String[] labels = new String[sellerSlot];
+            for (int i = 0; i < sellerSlot; i++) {
+                labels[i] = i < waitingLabels.length ? waitingLabels[i] : "seller data " + (i + 1);
+            }
+            waitingLabels = labels;
         }
-
-        System.out.println("[ChatController] Broadcast REQ-" + request.getRequestId()
-                + " ke " + sellerPanels.size() + " seller: " + message);
+        buyerPanel.displayWaitingMessage(waitingLabels[sellerSlot - 1], requestId, sellerSlot);
     }
 
     // ──────────────────────────────────────────────────────────
@@ -93,24 +303,38 @@ public class ChatController {
     public void onSellerFormSubmit(int requestId, int formIndex, String value, int sellerIndex) {
         ChatRequest request = findRequestById(requestId);
         if (request == null) return;
+        sessions.ifPresent(request.getSessionId(), s -> { s.touch(System.currentTimeMillis()); return null; });
 
         switch (formIndex) {
             case 1: request.setProductExplanation(value); break;
             case 2: request.setPriceEstimation(value);    break;
             case 3: request.setStockAvailability(value);  break;
         }
+        // Penawaran baru menahan stok setelah benar-benar dikirim ke buyer, bukan saat draft AI dibuat
+        if (formIndex == 2 || formIndex == 3) aiService.holdPendingOrder(requestId);
 
         // Kirim ke buyer dengan label nama seller
         String label = getSellerName(sellerIndex);
         String displayValue = "[" + label + "] " + value;
-        buyerPanel.replaceSpecificWaitingBubble(requestId, formIndex, displayValue);
+        eventBus.publish(ChatEvent.Type.FORM_SUBMITTED, requestId, formIndex, sellerIndex, displayValue, request);
+
+        long elapsed = System.nanoTime() - request.getCreatedNanos();
+        if (request.markRepliedBy(sellerIndex)) {
+            metrics.record(LatencyMetrics.Stage.FIRST_REPLY, sellerIndex, elapsed);
+        }
 
         if (request.isFullyResponded()) {
-            request.setStatus(ChatRequest.Status.RESPONDED);
+            // Hanya transisi pertama; submit ulang setelah lengkap tidak dihitung lagi
+            if (request.getStatus() != ChatRequest.Status.RESPONDED) {
+                metrics.record(LatencyMetrics.Stage.FULLY_RESPONDED, sellerIndex, elapsed);
+                request.setStatus(ChatRequest.Status.RESPONDED);
+                responded.addLast(request);
+                archiveOverCount(); // batas umur diurus sweep timer
+            }
         }
 
-        System.out.println("[ChatController] " + label + " submit REQ-"
-                + requestId + " Form " + formIndex);
+        log.info("form_submitted").field("req", requestId).field("form", formIndex)
+                .field("seller", sellerIndex).commit();
     }
 
     /** Backward compat — default seller 0 */
@@ -133,11 +357,33 @@ public class ChatController {
             default: return;
         }
 
-        String suggestion = aiService.generateResponse(request.getBuyerMessage(), type, requestId);
-
-        if (sellerIndex >= 0 && sellerIndex < sellerPanels.size()) {
-            sellerPanels.get(sellerIndex).fillFormField(requestId, formIndex, suggestion);
-        }
+        SellerView sp = sellerPanels.get(sellerIndex);
+        if (sp == null) return;
+
+        // Klik ulang untuk form yang sama ikut menunggu generate yang sudah jalan
+        long key = SuggestionCoalescer.key(requestId, formIndex, sellerIndex);
+        long start = System.nanoTime();
+        CompletableFuture<String> future = suggestions.begin(key, sellerIndex,
+                () -> aiService.generateResponseAsync(request.getBuyerMessage(), type, requestId));
+        if (future == null) return;
+        sp.setFormBusy(requestId, formIndex, true);
+
+        // Durasi generate dicatat di thread yang menyelesaikannya, sebelum antre di UI executor
+        future.whenComplete((suggestion, error) -> {
+            if (error == null) metrics.recordSince(LatencyMetrics.Stage.AI_SUGGEST, sellerIndex, start);
+        });
+        future.whenComplete((suggestion, error) -> uiExecutor.execute(() -> {
+            // Sudah di-clear -> buang hasilnya
+            if (!suggestions.finish(key, future)) return;
+            if (error != null) {
+                log.warn("suggestion_failed").field("req", requestId).field("form", formIndex)
+                        .field("seller", sellerIndex).field("error", error).commit();
+            }
+            else trackPendingOrder(request);
+            // text null = gagal: form hanya dikeluarkan dari status busy
+            eventBus.publish(ChatEvent.Type.SUGGESTION_READY, requestId, formIndex, sellerIndex,
+                    error == null ? suggestion : null, request);
+        }));
     }
 
     /** Backward compat */
@@ -145,100 +391,448 @@ public class ChatController {
         onAISuggestRequested(requestId, formIndex, 0);
     }
 
+    /** Klik AI untuk form yang sama dalam window ini (sejak generate terakhir) diabaikan */
+    public void setSuggestionDebounceMillis(int sellerIndex, long millis) {
+        suggestions.setDebounceMillis(sellerIndex, millis);
+    }
+
+    public long getSuggestionDebounceMillis(int sellerIndex) {
+        return suggestions.getDebounceMillis(sellerIndex);
+    }
+
+    /** Jumlah klik AI yang benar-benar memicu generate */
+    public long getSuggestionCount() {
+        return suggestions.getStartedCount();
+    }
+
+    /** Jumlah klik AI yang digabung / di-debounce tanpa generate baru */
+    public long getSuppressedSuggestionCount() {
+        return suggestions.getSuppressedCount();
+    }
+
+    /**
+     * Isi form semua request yang belum dijawab tuntas sekaligus (menu "AI Fill All").
+     * Generate dikerjakan paralel di luar UI executor, form diisi setelah semuanya selesai.
+     */
+    public void onAIFillAllRequested(int sellerIndex) {
+        SellerView sp = sellerPanels.get(sellerIndex);
+        if (sp == null) return;
+
+        // Hanya request yang memang di-route ke seller ini
+        List<ChatRequest> pending = new ArrayList<>();
+        for (ChatRequest r : activeRequests.snapshot()) {
+            if (r.getStatus() != ChatRequest.Status.RESPONDED && sp.hasRequest(r.getRequestId())) {
+                pending.add(r);
+            }
+        }
+        if (pending.isEmpty()) return;
+        long start = System.currentTimeMillis();
+        int  epoch = clearEpoch;
+
+        CompletableFuture<Map<Integer, String[]>> batch = aiService.generateAllResponsesAsync(pending);
+        fillAllInFlight.add(batch);
+        batch.whenComplete((results, error) -> uiExecutor.execute(() -> {
+            fillAllInFlight.remove(batch);
+            if (epoch != clearEpoch) {
+                // Semua chat dihapus selama generate: request-nya sudah tidak ada, hasilnya basi
+                log.info("fill_all_dropped").field("seller", sellerIndex).field("requests", pending.size())
+                        .commit();
+                return;
+            }
+            if (error != null) {
+                log.warn("fill_all_failed").field("seller", sellerIndex).field("error", error).commit();
+                return;
+            }
+            for (ChatRequest r : pending) trackPendingOrder(r);
+            for (Map.Entry<Integer, String[]> e : results.entrySet()) {
+                String[] fields = e.getValue();
+                for (int fi = 1; fi <= fields.length; fi++) {
+                    eventBus.publish(ChatEvent.Type.SUGGESTION_READY, e.getKey(), fi, sellerIndex,
+                            fields[fi - 1], null);
+                }
+            }
+            log.info("fill_all").field("seller", sellerIndex).field("requests", results.size())
+                    .field("millis", System.currentTimeMillis() - start).commit();
+        }));
+    }
+
+    /** Generate bisa menyimpan draft penawaran untuk request ini; catat di sesinya */
+    private void trackPendingOrder(ChatRequest request) {
+        int id = request.getRequestId();
+        if (!aiService.hasPendingOrder(id)) return;
+        if (!isActive(request)) {
+            aiService.releasePendingOrder(id); // sesi di-clear selama generate
+            return;
+        }
+        Boolean tracked = sessions.ifPresent(request.getSessionId(), s -> s.pendingOrderIds.add(id));
+        if (tracked == null) aiService.releasePendingOrder(id); // sesi sudah di-evict
+    }
+
     // ──────────────────────────────────────────────────────────
     //  Buyer klik Choose
     // ──────────────────────────────────────────────────────────
-    public void onBuyerChoose(int requestId, int formIndex, String message, int quantity, double unitPrice) {
-        cart.put(requestId + "-" + formIndex, new CartItem(message, quantity, unitPrice));
-        refreshSummary();
+    public void onBuyerChoose(int requestId, int formIndex, String message, int quantity, Money unitPrice) {
+        onBuyerChoose(LOCAL_SESSION_ID, requestId, formIndex, message, quantity, unitPrice);
+    }
+
+    /**
+     * Boleh dari thread mana pun, seperti {@link #onBuyerMessageSent(String, String)}.
+     *
+     * @return false jika request itu bukan milik sesi ini (keranjang tidak berubah)
+     */
+    public boolean onBuyerChoose(String sessionId, int requestId, int formIndex, String message, int quantity,
+                                 Money unitPrice) {
+        // Publish di dalam lock shard: cartVersion satu sesi selalu keluar urut
+        Boolean chosen = sessions.ifPresent(sessionId, s -> {
+            if (!s.ownsRequest(requestId)) return false;
+            s.touch(System.currentTimeMillis());
+            String line = s.putCartLine(requestId, formIndex, message, quantity, unitPrice);
+            eventBus.publishCartLine(sessionId, requestId, formIndex, line, quantity,
+                    unitPrice.getMinorUnits() * quantity, s.cart.hasPricedLine() ? s.cart.getTotalMinor() : -1,
+                    s.getCartVersion());
+            return true;
+        });
+        return chosen != null && chosen;
     }
 
     public void onBuyerChoose(int requestId, int formIndex, String message, int quantity) {
-        onBuyerChoose(requestId, formIndex, message, quantity, 0.0);
+        onBuyerChoose(requestId, formIndex, message, quantity, Money.ZERO);
     }
 
     public void onBuyerChoose(int requestId, int formIndex, String message) {
-        onBuyerChoose(requestId, formIndex, message, 1, 0.0);
+        onBuyerChoose(requestId, formIndex, message, 1, Money.ZERO);
     }
 
     // ──────────────────────────────────────────────────────────
-    //  Ringkasan pesanan buyer
+    //  Retensi & arsip request yang sudah dijawab
     // ──────────────────────────────────────────────────────────
-    private void refreshSummary() {
-        if (buyerPanel == null) return;
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("\uD83E\uDDFE Ringkasan Pesanan Buyer\n");
-        sb.append("--------------------------\n\n");
+    /**
+     * @param maxAgeMillis request RESPONDED yang lebih tua dari ini diarsip
+     * @param maxResponded jumlah maksimal request RESPONDED yang tetap aktif
+     */
+    public void setRetentionPolicy(long maxAgeMillis, int maxResponded) {
+        this.retentionMaxAgeMillis = maxAgeMillis;
+        this.retentionMaxResponded = maxResponded;
+        archiveRespondedRequests();
+    }
+
+    /** Jumlah arsip yang disimpan; arsip terlama dibuang kalau penuh */
+    public void setArchiveCapacity(int capacity) {
+        this.archiveCapacity = Math.max(0, capacity);
+        while (archive.size() > archiveCapacity) archive.pollFirst();
+    }
 
-        String address = buyerPanel.getAddress();
-        if (!address.isEmpty()) {
-            sb.append("\uD83D\uDCCD Alamat: ").append(address).append("\n\n");
+    /**
+     * Pindahkan request RESPONDED yang melewati batas umur atau jumlah ke arsip:
+     * dihapus dari registry dan dari dashboard semua seller.
+     *
+     * Hanya melihat antrean request RESPONDED (paling banyak sekitar batas jumlah),
+     * bukan semua request aktif. Dipanggil timer tiap RETENTION_CHECK_MILLIS; batas
+     * jumlah juga langsung ditegakkan setiap ada request yang baru lengkap dijawab.
+     *
+     * @return jumlah request yang diarsip
+     */
+    public int archiveRespondedRequests() {
+        long now = System.currentTimeMillis();
+        int  overCount = responded.size() - retentionMaxResponded;
+        int  archived  = 0;
+
+        Iterator<ChatRequest> it = responded.iterator(); // urut dari yang paling dulu lengkap
+        for (int i = 0; it.hasNext(); i++) {
+            ChatRequest r = it.next();
+            if (!isActive(r)) {
+                it.remove();                                // sudah keluar lewat jalur lain
+            } else if (i < overCount || now - r.getTimestamp().getTime() > retentionMaxAgeMillis) {
+                it.remove();
+                archive(r, now);
+                archived++;
+            }
         }
+        if (archived > 0) logArchived(archived);
+        return archived;
+    }
 
-        double grandTotal = 0;
-        boolean hasPrice  = false;
+    /** Batas jumlah saja: arsipkan yang paling dulu lengkap sampai sisa <= retentionMaxResponded */
+    private void archiveOverCount() {
+        long now = System.currentTimeMillis();
+        int  archived = 0;
+        while (responded.size() > retentionMaxResponded) {
+            ChatRequest r = responded.pollFirst();
+            if (!isActive(r)) continue;
+            archive(r, now);
+            archived++;
+        }
+        if (archived > 0) logArchived(archived);
+    }
 
-        for (CartItem item : cart.values()) {
-            String title = item.message.split("\n")[0].trim();
-            sb.append("• ").append(title).append("  x").append(item.quantity);
+    /** false kalau request sudah dihapus (evict / clear) atau id-nya sudah dipakai request lain */
+    private boolean isActive(ChatRequest r) {
+        return activeRequests.get(r.getRequestId()) == r;
+    }
 
-            if (item.unitPrice > 0) {
-                double sub = item.unitPrice * item.quantity;
-                grandTotal += sub;
-                hasPrice = true;
-                sb.append("  =  ").append(formatRupiah(sub));
-            }
-            sb.append("\n\n");
+    private void archive(ChatRequest r, long now) {
+        int id = r.getRequestId();
+        sessions.ifPresent(r.getSessionId(), s -> s.requestIds.remove(id));
+        activeRequests.remove(id);
+        eventBus.publish(ChatEvent.Type.REQUEST_ARCHIVED, id);
+        batchBytesBefore += r.estimateRetainedBytes();
+        if (archiveCapacity > 0) {
+            if (archive.size() >= archiveCapacity) archive.pollFirst();
+            ArchivedRequest a = ArchivedRequest.of(r, now);
+            archive.addLast(a);
+            batchBytesAfter += a.estimateRetainedBytes();
         }
+    }
 
-        sb.append("--------------------------\n");
-        if (hasPrice) sb.append("Grand Total: ").append(formatRupiah(grandTotal)).append("\n\n");
-        sb.append("Silakan konfirmasi pesanan Anda \uD83D\uDE0A");
+    private void logArchived(int count) {
+        archivedBytesBefore += batchBytesBefore;
+        archivedBytesAfter  += batchBytesAfter;
+        log.info("archived").field("requests", count).field("active", activeRequests.size())
+                .field("archive", archive.size()).field("retained_before_bytes", batchBytesBefore)
+                .field("retained_after_bytes", batchBytesAfter).commit();
+        batchBytesBefore = 0;
+        batchBytesAfter  = 0;
+    }
+
+    /** Perkiraan total byte yang ditahan request yang sudah diarsip selagi masih aktif */
+    public long getArchivedBytesBefore() {
+        return archivedBytesBefore;
+    }
+
+    /** Perkiraan total byte yang sama setelah jadi ArchivedRequest (0 jika arsip dinonaktifkan) */
+    public long getArchivedBytesAfter() {
+        return archivedBytesAfter;
+    }
 
-        buyerPanel.displayBuyerSummary(sb.toString());
+    public List<ArchivedRequest> getArchivedRequests() {
+        return new ArrayList<>(archive);
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Sesi buyer
+    // ──────────────────────────────────────────────────────────
+
+    /**
+     * Sesi yang diam melewati idle timeout: request-nya dikeluarkan dari daftar
+     * aktif (tanpa arsip) dan penawaran pending-nya dibatalkan. Dipanggil dari
+     * thread evictor, di luar lock shard.
+     */
+    private void onSessionEvicted(BuyerSession session) {
+        // Sesi sudah dilepas dari store: tidak ada thread lain yang mengubahnya lagi
+        List<Integer> requestIds = session.requestIdsSnapshot();
+        List<Integer> orders     = new ArrayList<>(session.pendingOrderIds);
+
+        for (int id : orders) aiService.releasePendingOrder(id);
+        for (int id : requestIds) {
+            if (activeRequests.remove(id) != null) eventBus.publish(ChatEvent.Type.REQUEST_ARCHIVED, id);
+        }
+        // Buang dari antrean arsip juga, supaya tidak ikut dihitung di batas jumlah
+        uiExecutor.execute(() -> responded.removeIf(r -> !isActive(r)));
+        log.info("session_evicted").field("session", session.getId()).field("requests", requestIds.size())
+                .field("orders_released", orders.size()).commit();
+    }
+
+    /** Request aktif milik satu sesi buyer (urut kirim) */
+    public List<ChatRequest> getActiveRequests(String sessionId) {
+        List<Integer> ids = sessions.ifPresent(sessionId, BuyerSession::requestIdsSnapshot);
+        List<ChatRequest> result = new ArrayList<>();
+        if (ids == null) return result;
+        for (int id : ids) {
+            ChatRequest r = activeRequests.get(id);
+            if (r != null) result.add(r);
+        }
+        return result;
+    }
+
+    /** Keranjang sesi saat ini untuk render ulang; boleh dari thread mana pun */
+    public CartSnapshot getCart(String sessionId) {
+        CartSnapshot cart = sessions.ifPresent(sessionId, BuyerSession::cartSnapshot);
+        return cart != null ? cart : CartSnapshot.EMPTY;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /** Paksa sweep sesi idle sekarang (biasanya jalan periodik di thread evictor) */
+    public int evictIdleSessions() {
+        return sessions.evictIdle();
+    }
+
+    private static boolean isLocal(String sessionId) {
+        return sessionId == null || LOCAL_SESSION_ID.equals(sessionId);
     }
 
     // ──────────────────────────────────────────────────────────
     //  Helpers
     // ──────────────────────────────────────────────────────────
     private String getSellerName(int idx) {
-        if (idx >= 0 && idx < sellerPanels.size()) {
-            return sellerPanels.get(idx).getSellerName();
+        SellerView sp = sellerPanels.get(idx);
+        if (sp != null) {
+            return sp.getSellerName();
         }
         return "Seller " + (idx + 1);
     }
 
     private ChatRequest findRequestById(int id) {
-        for (ChatRequest r : activeRequests) {
-            if (r.getRequestId() == id) return r;
-        }
-        return null;
+        return activeRequests.get(id);
     }
 
     public List<ChatRequest> getActiveRequests() {
-        return new ArrayList<>(activeRequests);
+        return activeRequests.snapshot();
     }
 
-    private String formatRupiah(double amount) {
-        long val = Math.round(amount);
-        String raw = String.valueOf(val);
-        StringBuilder sb = new StringBuilder();
-        int start = raw.length() % 3;
-        if (start > 0) sb.append(raw, 0, start);
-        for (int i = start; i < raw.length(); i += 3) {
-            if (sb.length() > 0) sb.append(".");
-            sb.append(raw, i, i + 3);
-        }
-        return "Rp " + sb.toString();
+    /**
+     * Hapus chat satu sesi buyer (menu "Clear All Chats" buyer lokal): request-nya
+     * keluar dari daftar aktif dan dashboard seller tanpa diarsip, penawaran
+     * pending dibatalkan, keranjang dikosongkan. Sesi lain tidak tersentuh dan id
+     * request tidak pernah dipakai ulang. Dipanggil di UI executor.
+     */
+    public void clearSession(String sessionId) {
+        List<Integer> orders = new ArrayList<>();
+        List<Integer> requestIds = sessions.reset(sessionId, old -> {
+            List<Integer> ids = old.requestIdsSnapshot();
+            for (int id : ids) {
+                if (activeRequests.remove(id) != null) eventBus.publish(ChatEvent.Type.REQUEST_ARCHIVED, id);
+            }
+            orders.addAll(old.pendingOrderIds);
+            eventBus.publish(ChatEvent.Type.CHATS_CLEARED, sessionId, 0, 0, -1, null, null, null);
+            return ids;
+        });
+        if (requestIds == null) return;
+
+        for (int id : orders) aiService.releasePendingOrder(id);
+        responded.removeIf(r -> !isActive(r));
+        if (isLocal(sessionId)) waitingPlaceholders.clear(); // placeholder hanya untuk buyer lokal
+        log.info("session_cleared").field("session", sessionId).field("requests", requestIds.size())
+                .field("orders_released", orders.size()).commit();
     }
 
+    /**
+     * Reset admin: hapus semua sesi, request, arsip dan penawaran. Bukan untuk
+     * tombol buyer (lihat {@link #clearSession}); id request tetap lanjut naik.
+     */
     public void clearAllChats() {
-        activeRequests.clear();
-        cart.clear();
-        requestIdCounter = 1;
-        if (buyerPanel != null) buyerPanel.clearChat();
-        for (SellerPanel sp : sellerPanels) sp.clearAllRequests();
-        System.out.println("[ChatController] All chats cleared");
+        clearEpoch++;
+        for (CompletableFuture<?> batch : fillAllInFlight) batch.cancel(false);
+        fillAllInFlight.clear();
+        suggestions.cancelAll();
+        waitingPlaceholders.clear();
+        responded.clear();
+        archive.clear();
+        // Sebelum lock sesi: listener order kedaluwarsa memanggil sessions.ifPresent dari thread lain
+        int ordersReleased = aiService.releaseAllPendingOrders();
+        // Pesan buyer tidak lewat UI executor; dengan semua shard terkunci, tiap pesan
+        // selesai seluruhnya sebelum reset atau baru mulai sesudahnya
+        sessions.withAllShardsLocked(() -> {
+            activeRequests.clear();
+            sessions.clear();
+            eventBus.publish(ChatEvent.Type.CHATS_CLEARED, 0);
+        });
+        log.info("chats_cleared").field("orders_released", ordersReleased).commit();
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Consumer event bus (UI executor)
+    // ──────────────────────────────────────────────────────────
+    private void dispatchToBuyer(ChatEvent e, boolean endOfBatch) {
+        if (buyerPanel == null || !isLocal(e.getSessionId())) return; // sesi buyer lain tidak tampil di sini
+        switch (e.getType()) {
+            case MESSAGE_SENT:   buyerPanel.displayBuyerMessage(e.getText()); break;
+            case FORM_SUBMITTED: buyerPanel.replaceSpecificWaitingBubble(e.getRequestId(), e.getFormIndex(), e.getText()); break;
+            case CART_CHANGED:
+                if (e.getCartVersion() <= localCartVersion) break;        // sudah termasuk render ulang
+                if (e.getCartVersion() != localCartVersion + 1) {
+                    renderLocalCart();                                     // ada perubahan yang terlewat
+                    break;
+                }
+                buyerPanel.updateCartLine(e.getRequestId(), e.getFormIndex(), e.getText(),
+                        e.getAmount() < 0 ? null : Money.ofMinor(e.getAmount()));
+                localCartVersion = e.getCartVersion();
+                break;
+            case CHATS_CLEARED:
+                buyerPanel.clearChat();
+                localCartVersion = 0;                                      // sesi baru, versi mulai dari 1
+                break;
+            default: break;
+        }
+    }
+
+    /** Tampilkan ulang semua baris keranjang lokal; updateCartLine menimpa per baris */
+    private void renderLocalCart() {
+        CartSnapshot cart = getCart(LOCAL_SESSION_ID);
+        Money total = cart.getTotalMinor() < 0 ? null : Money.ofMinor(cart.getTotalMinor());
+        for (CartSnapshot.Line line : cart.getLines()) {
+            buyerPanel.updateCartLine(line.getRequestId(), line.getFormIndex(), line.getText(), total);
+        }
+        localCartVersion = cart.getVersion();
+    }
+
+    // Panel yang baru ditambah request; layout ditunda sampai akhir batch
+    private Set<SellerView> sellersPendingLayout = new LinkedHashSet<>();
+
+    private void dispatchToSellers(ChatEvent e, boolean endOfBatch) {
+        switch (e.getType()) {
+            case MESSAGE_SENT:
+                int[] targets = e.getTargetSellers();
+                if (targets == null) {
+                    for (SellerView sp : sellerPanels.values()) addRequestDeferred(sp, e.getRequest());
+                } else {
+                    for (int idx : targets) {
+                        SellerView sp = sellerPanels.get(idx);
+                        if (sp != null) addRequestDeferred(sp, e.getRequest());
+                    }
+                }
+                break;
+            case SUGGESTION_READY:
+                SellerView seller = sellerPanels.get(e.getSellerIndex());
+                if (seller != null) {
+                    seller.setFormBusy(e.getRequestId(), e.getFormIndex(), false);
+                    if (e.getText() != null) seller.fillFormField(e.getRequestId(), e.getFormIndex(), e.getText());
+                }
+                break;
+            case REQUEST_ARCHIVED:
+                for (SellerView sp : sellerPanels.values()) sp.removeRequest(e.getRequestId());
+                break;
+            case CHATS_CLEARED:
+                if (e.getSessionId() != null) break; // clear satu sesi: request-nya sudah lewat REQUEST_ARCHIVED
+                for (SellerView sp : sellerPanels.values()) sp.clearAllRequests();
+                sellersPendingLayout.clear();
+                break;
+            default:
+                break;
+        }
+        if (endOfBatch && !sellersPendingLayout.isEmpty()) {
+            for (SellerView sp : sellersPendingLayout) sp.refreshLayout();
+            sellersPendingLayout.clear();
+        }
+    }
+
+    private void addRequestDeferred(SellerView sp, ChatRequest request) {
+        sp.addRequest(request, false);
+        sellersPendingLayout.add(sp);
+    }
+
+    /** Event yang lewat overflow bus karena ada consumer tertinggal satu putaran ring (tidak ada yang hilang) */
+    public long getOverflowedEventCount() {
+        return eventBus.getOverflowCount();
+    }
+
+    /** Event yang belum diterima panel buyer / seller (drain-nya masih antre di UI executor) */
+    public long getPendingEventCount() {
+        return sellerSubscription.getLag() + (buyerSubscription != null ? buyerSubscription.getLag() : 0);
+    }
+
+    /**
+     * Consumer tambahan di luar panel (mis. gateway untuk buyer remote).
+     * Handler dipanggil di UI executor; jangan blocking di sana.
+     */
+    public ChatEventBus.Subscription subscribeEvents(String name, ChatEventBus.Handler handler) {
+        return eventBus.subscribe(name, handler);
+    }
+
+    public void unsubscribeEvents(ChatEventBus.Subscription subscription) {
+        eventBus.unsubscribe(subscription);
     }
 }
\ No newline at end of file
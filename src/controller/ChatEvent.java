@@ -0,0 +1,74 @@
+package controller;
+
+import model.ChatRequest;
+
+/**
+ * ChatEvent - Satu slot event di ChatEventBus
+ *
+ * Objeknya dipakai ulang: slot di ring buffer ditimpa producer, dan consumer
+ * menerima salinan yang juga dipakai ulang untuk event berikutnya. Jangan
+ * simpan referensi ke ChatEvent di luar onEvent.
+ */
+public final class ChatEvent {
+
+    public enum Type {
+        MESSAGE_SENT,      // request baru dari buyer (request, text = pesan)
+        FORM_SUBMITTED,    // seller submit form (requestId, formIndex, sellerIndex, text = isi bubble)
+        SUGGESTION_READY,  // AI suggestion siap (requestId, formIndex, sellerIndex, text)
+        CART_CHANGED,      // state absolut satu baris keranjang (sessionId, requestId, formIndex, text = baris,
+                           //   quantity, lineAmount = total baris, amount = grand total; minor unit, -1 = belum
+                           //   ada harga; cartVersion naik 1 per perubahan keranjang sesi itu)
+        REQUEST_ARCHIVED,  // request keluar dari daftar aktif (requestId)
+        CHATS_CLEARED      // chat dihapus: satu sesi, atau semua jika sessionId null
+    }
+
+    Type        type;
+    String      sessionId;     // buyer pemilik event, null = semua
+    int         requestId;
+    int         formIndex;
+    int         sellerIndex;
+    String      text;
+    ChatRequest request;
+    int[]       targetSellers; // MESSAGE_SENT: seller tujuan, null = semua
+    long        amount;
+    int         quantity;      // CART_CHANGED
+    long        lineAmount;    // CART_CHANGED
+    long        cartVersion;   // CART_CHANGED
+
+    ChatEvent() {
+    }
+
+    void set(Type type, String sessionId, int requestId, int formIndex, int sellerIndex, String text,
+             ChatRequest request, int[] targetSellers, long amount, int quantity, long lineAmount, long cartVersion) {
+        this.type          = type;
+        this.sessionId     = sessionId;
+        this.requestId     = requestId;
+        this.formIndex     = formIndex;
+        this.sellerIndex   = sellerIndex;
+        this.text          = text;
+        this.request       = request;
+        this.targetSellers = targetSellers;
+        this.amount        = amount;
+        this.quantity      = quantity;
+        this.lineAmount    = lineAmount;
+        this.cartVersion   = cartVersion;
+    }
+
+    void copyFrom(ChatEvent other) {
+        set(other.type, other.sessionId, other.requestId, other.formIndex, other.sellerIndex, other.text,
+                other.request, other.targetSellers, other.amount, other.quantity, other.lineAmount, other.cartVersion);
+    }
+
+    public Type        getType()        { return type; }
+    public String      getSessionId()   { return sessionId; }
+    public int         getRequestId()   { return requestId; }
+    public int         getFormIndex()   { return formIndex; }
+    public int         getSellerIndex() { return sellerIndex; }
+    public String      getText()        { return text; }
+    public ChatRequest getRequest()     { return request; }
+    public int[]       getTargetSellers() { return targetSellers; }
+    public long        getAmount()      { return amount; }
+    public int         getQuantity()    { return quantity; }
+    public long        getLineAmount()  { return lineAmount; }
+    public long        getCartVersion() { return cartVersion; }
+}
@@ -0,0 +1,248 @@
+package controller;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import model.ChatRequest;
+import service.EventLog;
+
+/**
+ * ChatEventBus - Ring buffer event (gaya Disruptor) antara controller dan panel
+ *
+ * Slot ChatEvent dialokasikan sekali di awal. Producer (thread mana pun)
+ * mengklaim nomor urut dengan satu getAndIncrement, mengisi slot, lalu
+ * mempublikasikannya; producer tidak pernah menunggu consumer.
+ *
+ * Tiap consumer punya nomor urut sendiri dan di-drain di UI executor
+ * (EDT di GUI) secara batch: satu hop per batch, bukan per event.
+ *
+ * Tidak ada event yang hilang. Sebelum menulis, producer cek consumer
+ * paling lambat: kalau slot tujuannya masih belum dibaca consumer itu
+ * (tertinggal satu putaran ring), event disalin ke map overflow berurut
+ * alih-alih menimpa slot. Consumer membaca nomor urut berikutnya dari ring
+ * atau dari overflow, jadi urutan tetap sama; overflow dibersihkan begitu
+ * semua consumer melewatinya. Producer tetap tidak pernah menunggu (aman
+ * dipanggil sambil memegang lock), harganya alokasi hanya selama ada
+ * consumer yang tertinggal ({@link #getOverflowCount()}).
+ *
+ * Status slot disimpan di {@code published}: nomor urut event terakhir yang
+ * sudah lengkap ditulis di slot itu. Selama ditulis, isinya masih nomor urut
+ * putaran sebelumnya, jadi consumer belum menganggapnya ada.
+ */
+public class ChatEventBus {
+
+    /** Handler consumer; dipanggil di UI executor */
+    public interface Handler {
+        void onEvent(ChatEvent event, boolean endOfBatch);
+    }
+
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final int MAX_BATCH = 256;
+
+    private final ChatEvent[]     slots;
+    private final AtomicLongArray published;
+    private final int             mask;
+    private final AtomicLong      cursor = new AtomicLong(); // nomor urut berikutnya yang diklaim
+    private final Executor        uiExecutor;
+    private final EventLog        log;
+
+    // Event yang slot ring-nya masih ditahan consumer paling lambat (seq -> salinan)
+    private final ConcurrentSkipListMap<Long, ChatEvent> overflow = new ConcurrentSkipListMap<>();
+    private final AtomicLong overflowed = new AtomicLong();
+
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public ChatEventBus(Executor uiExecutor, EventLog log) {
+        this(DEFAULT_CAPACITY, uiExecutor, log);
+    }
+
+    /** @param log tujuan error handler consumer */
+    public ChatEventBus(int capacity, Executor uiExecutor, EventLog log) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("capacity harus pangkat 2");
+        this.slots      = new ChatEvent[capacity];
+        this.published  = new AtomicLongArray(capacity);
+        this.mask       = capacity - 1;
+        this.uiExecutor = uiExecutor;
+        this.log        = log;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new ChatEvent();
+            published.set(i, -1); // belum pernah ditulis
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Producer
+    // ──────────────────────────────────────────────────────────
+    public void publish(ChatEvent.Type type, int requestId, int formIndex, int sellerIndex,
+                        String text, ChatRequest request) {
+        publish(type, requestId, formIndex, sellerIndex, text, request, null);
+    }
+
+    /** Session id diambil dari request (null kalau tidak ada request) */
+    public void publish(ChatEvent.Type type, int requestId, int formIndex, int sellerIndex,
+                        String text, ChatRequest request, int[] targetSellers) {
+        publish(type, request != null ? request.getSessionId() : null, requestId, formIndex, sellerIndex,
+                text, request, targetSellers);
+    }
+
+    public void publish(ChatEvent.Type type, String sessionId, int requestId, int formIndex, int sellerIndex,
+                        String text, ChatRequest request, int[] targetSellers) {
+        publish(type, sessionId, requestId, formIndex, sellerIndex, text, request, targetSellers, 0, 0, 0, 0);
+    }
+
+    /**
+     * State absolut satu baris keranjang (bukan selisih), jadi event berikutnya
+     * untuk baris yang sama selalu menimpa penuh. Consumer yang melihat
+     * cartVersion loncat berarti ada perubahan yang tidak sampai ke layarnya
+     * dan harus render ulang seluruh keranjang dari snapshot.
+     *
+     * @param lineMinor  total baris dalam minor unit (0 = belum ada harga)
+     * @param totalMinor grand total dalam minor unit, -1 = belum ada harga
+     */
+    public void publishCartLine(String sessionId, int requestId, int formIndex, String lineText, int quantity,
+                                long lineMinor, long totalMinor, long cartVersion) {
+        publish(ChatEvent.Type.CART_CHANGED, sessionId, requestId, formIndex, -1, lineText, null, null, totalMinor,
+                quantity, lineMinor, cartVersion);
+    }
+
+    private void publish(ChatEvent.Type type, String sessionId, int requestId, int formIndex, int sellerIndex,
+                         String text, ChatRequest request, int[] targetSellers, long amount,
+                         int quantity, long lineAmount, long cartVersion) {
+        long seq = cursor.getAndIncrement();
+        if (seq - slowestNext(seq) < slots.length) {
+            // Slot ini sudah dibaca semua consumer (isi lamanya seq - capacity)
+            int i = (int) seq & mask;
+            slots[i].set(type, sessionId, requestId, formIndex, sellerIndex, text, request, targetSellers, amount,
+                    quantity, lineAmount, cartVersion);
+            published.set(i, seq);          // publikasi
+        } else {
+            ChatEvent copy = new ChatEvent();
+            copy.set(type, sessionId, requestId, formIndex, sellerIndex, text, request, targetSellers, amount,
+                    quantity, lineAmount, cartVersion);
+            overflow.put(seq, copy);
+            overflowed.incrementAndGet();
+        }
+
+        for (Subscription s : subscriptions) s.requestDrain();
+    }
+
+    /** Nomor urut terkecil yang belum dibaca consumer mana pun ({@code ifNone} kalau tidak ada consumer) */
+    private long slowestNext(long ifNone) {
+        long min = ifNone;
+        for (Subscription s : subscriptions) min = Math.min(min, s.next);
+        return min;
+    }
+
+    public void publish(ChatEvent.Type type, int requestId) {
+        publish(type, requestId, 0, -1, null, null);
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Consumer
+    // ──────────────────────────────────────────────────────────
+
+    /** Consumer baru mulai dari event berikutnya yang dipublikasikan */
+    public Subscription subscribe(String name, Handler handler) {
+        Subscription s = new Subscription(name, handler, cursor.get());
+        subscriptions.add(s);
+        return s;
+    }
+
+    public void unsubscribe(Subscription s) {
+        subscriptions.remove(s);
+        trimOverflow();
+    }
+
+    public long getPublishedCount() {
+        return cursor.get();
+    }
+
+    /** Berapa event yang pernah lewat overflow karena ada consumer tertinggal satu putaran ring */
+    public long getOverflowCount() {
+        return overflowed.get();
+    }
+
+    /** Buang salinan overflow yang sudah dibaca semua consumer */
+    private void trimOverflow() {
+        if (overflow.isEmpty()) return;
+        overflow.headMap(slowestNext(cursor.get())).clear();
+    }
+
+    public final class Subscription {
+        private final String  name;
+        private final Handler handler;
+        private final ChatEvent scratch = new ChatEvent(); // salinan slot untuk handler
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Runnable drainTask = this::drain;
+
+        // Hanya ditulis di UI executor; volatile karena producer membacanya untuk cek slot
+        private volatile long next;
+
+        private Subscription(String name, Handler handler, long start) {
+            this.name    = name;
+            this.handler = handler;
+            this.next    = start;
+        }
+
+        public String getName() { return name; }
+
+        /** Berapa event yang belum diproses consumer ini */
+        public long getLag() {
+            return Math.max(0, cursor.get() - next);
+        }
+
+        private void requestDrain() {
+            if (!scheduled.compareAndSet(false, true)) return;
+            try {
+                uiExecutor.execute(drainTask);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false); // UI executor sudah shutdown: tidak ada lagi yang men-drain
+            }
+        }
+
+        private void drain() {
+            scheduled.set(false); // event yang publish setelah ini akan menjadwalkan drain baru
+            if (!subscriptions.contains(this)) return;
+
+            int delivered = 0;
+            boolean more = true;
+            while (more && delivered < MAX_BATCH) {
+                long seq = next;
+                if (!read(seq)) break;             // belum dipublikasikan (producer masih menulis)
+
+                next = seq + 1;                    // slot boleh dipakai ulang producer mulai sini
+                delivered++;
+                more = isPublished(seq + 1);
+                try {
+                    handler.onEvent(scratch, !more || delivered == MAX_BATCH);
+                } catch (RuntimeException e) {
+                    log.error("event_handler_failed").field("subscriber", name).field("type", scratch.type)
+                            .field("req", scratch.requestId).field("error", e).commit();
+                }
+            }
+            trimOverflow();
+            if (more) requestDrain();              // sisa batch di hop berikutnya
+        }
+
+        /** Salin event seq ke scratch, dari ring atau overflow; false kalau belum dipublikasikan */
+        private boolean read(long seq) {
+            int i = (int) seq & mask;
+            if (published.get(i) == seq) {
+                scratch.copyFrom(slots[i]);        // tidak bisa ditimpa: next consumer ini masih seq
+                return true;
+            }
+            ChatEvent copy = overflow.get(seq);
+            if (copy == null) return false;
+            scratch.copyFrom(copy);
+            return true;
+        }
+
+        private boolean isPublished(long seq) {
+            return published.get((int) seq & mask) == seq || overflow.containsKey(seq);
+        }
+    }
+}
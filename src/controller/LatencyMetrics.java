@@ -0,0 +1,232 @@
+package controller;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import service.EventLog;
+import service.LatencyHistogram;
+
+/**
+ * LatencyMetrics - Histogram latensi per tahap request, per seller
+ *
+ * Tahap yang diukur (semua dari System.nanoTime()):
+ *   first_reply      pesan buyer -> submit form pertama dari seller itu
+ *   fully_responded  pesan buyer -> ChatRequest.isFullyResponded()
+ *                    (dicatat untuk seller yang menutup request)
+ *   ai_suggest       klik AI -> generateResponseAsync selesai
+ *   ui_queue         task masuk UI executor -> mulai jalan (antrean EDT)
+ *
+ * Tiap tahap punya histogram gabungan ("all") plus satu per seller, dibuat
+ * saat sampel pertama seller itu masuk. Semuanya LatencyHistogram (lock-free),
+ * jadi boleh dicatat dari UI executor maupun thread pool AI.
+ *
+ * Dibaca lewat JMX (chat:type=Latency,controller=N,stage=...,seller=...),
+ * snapshot teks {@link #toText()} dan baris "latency" berkala di EventLog.
+ * Platform MBeanServer baru dibuat di {@link #startJmx()} (~250 ms saat
+ * pertama kali), jadi controller memanggilnya di thread timer, bukan saat
+ * startup.
+ */
+public final class LatencyMetrics {
+
+    public enum Stage {
+        FIRST_REPLY("first_reply", true),
+        FULLY_RESPONDED("fully_responded", true),
+        AI_SUGGEST("ai_suggest", true),
+        UI_QUEUE("ui_queue", false);
+
+        private final String  key;
+        private final boolean perSeller;
+
+        Stage(String key, boolean perSeller) {
+            this.key       = key;
+            this.perSeller = perSeller;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /** Seller index untuk histogram gabungan */
+    public static final int ALL_SELLERS = -1;
+
+    private static final String        JMX_DOMAIN = "chat";
+    private static final AtomicInteger instances  = new AtomicInteger();
+
+    private static final class StageHistograms {
+        final LatencyHistogram all;
+        // urut index supaya snapshot selalu sama urutannya
+        final ConcurrentSkipListMap<Integer, LatencyHistogram> sellers = new ConcurrentSkipListMap<>();
+
+        StageHistograms(LatencyHistogram all) {
+            this.all = all;
+        }
+    }
+
+    private final String            instance;
+    private final EventLog          log;
+    private final StageHistograms[] stages = new StageHistograms[Stage.values().length];
+    private volatile MBeanServer    mbeans;             // null sampai startJmx()
+    private final Map<LatencyHistogram, ObjectName> registered = new ConcurrentHashMap<>();
+
+    /** @param log tujuan snapshot berkala dan peringatan registrasi JMX */
+    public LatencyMetrics(EventLog log) {
+        this.instance = String.valueOf(instances.incrementAndGet());
+        this.log      = log;
+        for (Stage stage : Stage.values()) {
+            stages[stage.ordinal()] = new StageHistograms(new LatencyHistogram(stage.key + "/all"));
+        }
+    }
+
+    /** Daftarkan semua histogram ke platform MBeanServer; yang dibuat sesudahnya langsung didaftarkan */
+    void startJmx() {
+        if (mbeans != null) return;
+        mbeans = ManagementFactory.getPlatformMBeanServer();
+        for (Stage stage : Stage.values()) {
+            StageHistograms h = stages[stage.ordinal()];
+            register(h.all, stage, "all");
+            for (Map.Entry<Integer, LatencyHistogram> e : h.sellers.entrySet()) {
+                register(e.getValue(), stage, String.valueOf(e.getKey()));
+            }
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Recording
+    // ──────────────────────────────────────────────────────────
+
+    /** Catat ke histogram gabungan dan (kalau tahapnya per seller) histogram seller itu */
+    public void record(Stage stage, int sellerIndex, long nanos) {
+        StageHistograms h = stages[stage.ordinal()];
+        h.all.recordNanos(nanos);
+        if (stage.perSeller && sellerIndex >= 0) forSeller(stage, sellerIndex).recordNanos(nanos);
+    }
+
+    public void recordSince(Stage stage, int sellerIndex, long startNanos) {
+        record(stage, sellerIndex, System.nanoTime() - startNanos);
+    }
+
+    /** Bungkus UI executor: tiap task mencatat lama menunggu di antreannya (ui_queue) */
+    Executor timed(Executor delegate) {
+        LatencyHistogram queue = stages[Stage.UI_QUEUE.ordinal()].all;
+        return task -> {
+            long queued = System.nanoTime();
+            delegate.execute(() -> {
+                queue.recordSince(queued);
+                task.run();
+            });
+        };
+    }
+
+    private LatencyHistogram forSeller(Stage stage, int sellerIndex) {
+        ConcurrentSkipListMap<Integer, LatencyHistogram> sellers = stages[stage.ordinal()].sellers;
+        LatencyHistogram h = sellers.get(sellerIndex);
+        if (h != null) return h;
+
+        LatencyHistogram created = new LatencyHistogram(stage.key + "/seller-" + sellerIndex);
+        LatencyHistogram prev = sellers.putIfAbsent(sellerIndex, created);
+        if (prev != null) return prev;
+        register(created, stage, String.valueOf(sellerIndex));
+        return created;
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Reading
+    // ──────────────────────────────────────────────────────────
+
+    /** @param sellerIndex {@link #ALL_SELLERS} untuk gabungan; null kalau seller belum punya sampel */
+    public LatencyHistogram getHistogram(Stage stage, int sellerIndex) {
+        StageHistograms h = stages[stage.ordinal()];
+        return sellerIndex == ALL_SELLERS ? h.all : h.sellers.get(sellerIndex);
+    }
+
+    /** Tabel p50/p99/p999 (µs) semua histogram yang sudah punya sampel */
+    public String toText() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append(String.format("%-16s %-7s %9s %10s %10s %10s %10s%n",
+                "stage", "seller", "count", "p50_us", "p99_us", "p999_us", "max_us"));
+        for (Stage stage : Stage.values()) {
+            StageHistograms h = stages[stage.ordinal()];
+            appendRow(sb, stage, "all", h.all.snapshot());
+            for (Map.Entry<Integer, LatencyHistogram> e : h.sellers.entrySet()) {
+                appendRow(sb, stage, String.valueOf(e.getKey()), e.getValue().snapshot());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendRow(StringBuilder sb, Stage stage, String seller, LatencyHistogram.Snapshot s) {
+        if (s.getCount() == 0) return;
+        sb.append(String.format("%-16s %-7s %9d %10d %10d %10d %10d%n", stage.key, seller, s.getCount(),
+                s.valueAt(50), s.valueAt(99), s.valueAt(99.9), s.getMax()));
+    }
+
+    /** Satu baris "latency" per histogram yang sudah punya sampel */
+    public void logSnapshot() {
+        for (Stage stage : Stage.values()) {
+            StageHistograms h = stages[stage.ordinal()];
+            logRow(stage, "all", h.all);
+            for (Map.Entry<Integer, LatencyHistogram> e : h.sellers.entrySet()) logRow(stage, e.getKey(), e.getValue());
+        }
+    }
+
+    private void logRow(Stage stage, Object seller, LatencyHistogram h) {
+        LatencyHistogram.Snapshot s = h.snapshot();
+        if (s.getCount() == 0) return;
+        log.info("latency").field("stage", stage.key).field("seller", seller).field("count", s.getCount())
+                .field("p50_us", s.valueAt(50)).field("p99_us", s.valueAt(99)).field("p999_us", s.valueAt(99.9))
+                .field("max_us", s.getMax()).commit();
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Lifecycle
+    // ──────────────────────────────────────────────────────────
+
+    /** Seller keluar: snapshot terakhirnya ditulis ke log, histogram & MBean-nya dilepas */
+    void removeSeller(int sellerIndex) {
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram h = stages[stage.ordinal()].sellers.remove(sellerIndex);
+            if (h == null) continue;
+            logRow(stage, sellerIndex, h);
+            unregister(h);
+        }
+    }
+
+    /** Lepas semua MBean (controller shutdown) */
+    void close() {
+        List<LatencyHistogram> all = new ArrayList<>(registered.keySet());
+        for (LatencyHistogram h : all) unregister(h);
+    }
+
+    // synchronized: startJmx() dan seller baru bisa mendaftarkan histogram yang sama bersamaan
+    private synchronized void register(LatencyHistogram h, Stage stage, String seller) {
+        if (mbeans == null || registered.containsKey(h)) return;
+        try {
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":type=Latency,controller=" + instance
+                    + ",stage=" + stage.key + ",seller=" + seller);
+            mbeans.registerMBean(h, name);
+            registered.put(h, name);
+        } catch (JMException e) {
+            log.warn("jmx_register_failed").field("stage", stage.key).field("seller", seller)
+                    .field("error", e).commit();
+        }
+    }
+
+    private synchronized void unregister(LatencyHistogram h) {
+        ObjectName name = registered.remove(h);
+        if (name == null) return;
+        try {
+            mbeans.unregisterMBean(name);
+        } catch (JMException e) {
+            // sudah dilepas dari luar (mis. lewat JConsole)
+        }
+    }
+}
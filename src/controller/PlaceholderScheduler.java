@@ -0,0 +1,163 @@
+package controller;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PlaceholderScheduler - Satu timer untuk semua bubble "Waiting for seller data"
+ *
+ * Tiap pesan buyer menjadwalkan satu placeholder per seller, bertingkat
+ * (seller 1 setelah 1x delay, seller 2 setelah 2x delay, ...). Karena delay
+ * per tingkat tetap, antrean per tingkat otomatis urut waktu; antrean disimpan
+ * sebagai ring buffer primitif (int id + long due), jadi menjadwalkan pesan
+ * tidak mengalokasikan objek.
+ *
+ * Satu tugas one-shot di scheduler di-arm ke entri paling awal; saat jatuh
+ * tempo, drain dipindah ke UI executor (EDT atau thread engine headless) dan
+ * semua entri yang jatuh tempo dari semua tingkat dikeluarkan berurutan
+ * waktu dalam satu tick, lalu di-arm ulang. Saat idle tidak ada tick sama
+ * sekali.
+ *
+ * Hanya dipakai dari UI executor.
+ */
+class PlaceholderScheduler {
+
+    /** Dipanggil di UI executor untuk tiap placeholder yang jatuh tempo */
+    interface Sink {
+        void showPlaceholder(int requestId, int sellerSlot);
+    }
+
+    /** Entri yang jatuh tempo sedikit lagi ikut dikeluarkan di tick yang sama */
+    private static final long COALESCE_MILLIS = 10;
+    private static final int  INITIAL_CAPACITY = 16;
+
+    private final long  stageDelayMillis;
+    private final Sink  sink;
+    private final ScheduledExecutorService timer;
+    private final Runnable fire;
+
+    private ScheduledFuture<?> armed;
+    private long armedAt = Long.MAX_VALUE; // jatuh tempo tugas yang sedang di-arm
+
+    private Stage[] stages = new Stage[0];
+
+    /** Ring buffer FIFO untuk satu tingkat */
+    private static final class Stage {
+        int[]  ids = new int[INITIAL_CAPACITY];
+        long[] due = new long[INITIAL_CAPACITY];
+        int head, size;
+
+        void add(int id, long at) {
+            if (size == ids.length) grow();
+            int i = (head + size) & (ids.length - 1);
+            ids[i] = id;
+            due[i] = at;
+            size++;
+        }
+
+        void poll() {
+            head = (head + 1) & (ids.length - 1);
+            size--;
+        }
+
+        private void grow() {
+            int[]  newIds = new int[ids.length * 2];
+            long[] newDue = new long[ids.length * 2];
+            for (int k = 0; k < size; k++) {
+                int i = (head + k) & (ids.length - 1);
+                newIds[k] = ids[i];
+                newDue[k] = due[i];
+            }
+            ids = newIds;
+            due = newDue;
+            head = 0;
+        }
+    }
+
+    PlaceholderScheduler(long stageDelayMillis, Sink sink, ScheduledExecutorService timer, Executor uiExecutor) {
+        this.stageDelayMillis = stageDelayMillis;
+        this.sink  = sink;
+        this.timer = timer;
+        Runnable drainTask = this::drain;
+        this.fire  = () -> uiExecutor.execute(drainTask);
+    }
+
+    /** Jadwalkan placeholder seller 1..sellerCount untuk request ini */
+    void schedule(int requestId, int sellerCount) {
+        if (sellerCount > stages.length) {
+            Stage[] grown = new Stage[sellerCount];
+            System.arraycopy(stages, 0, grown, 0, stages.length);
+            for (int s = stages.length; s < sellerCount; s++) grown[s] = new Stage();
+            stages = grown;
+        }
+        long now = System.currentTimeMillis();
+        for (int s = 0; s < sellerCount; s++) {
+            stages[s].add(requestId, now + (s + 1) * stageDelayMillis);
+        }
+        arm();
+    }
+
+    /** Buang semua placeholder yang belum tampil */
+    void clear() {
+        for (Stage st : stages) {
+            st.head = 0;
+            st.size = 0;
+        }
+        disarm();
+    }
+
+    int size() {
+        int n = 0;
+        for (Stage st : stages) n += st.size;
+        return n;
+    }
+
+    /** Keluarkan semua entri jatuh tempo, urut waktu lintas tingkat */
+    private void drain() {
+        armed   = null;
+        armedAt = Long.MAX_VALUE;
+        long limit = System.currentTimeMillis() + COALESCE_MILLIS;
+        while (true) {
+            int  best    = -1;
+            long bestDue = Long.MAX_VALUE;
+            for (int s = 0; s < stages.length; s++) {
+                Stage st = stages[s];
+                if (st.size > 0 && st.due[st.head] < bestDue) {
+                    best = s;
+                    bestDue = st.due[st.head];
+                }
+            }
+            if (best < 0 || bestDue > limit) break;
+
+            Stage st = stages[best];
+            int id = st.ids[st.head];
+            st.poll();
+            sink.showPlaceholder(id, best + 1);
+        }
+        arm();
+    }
+
+    /** Arm timer ke entri paling awal (kalau ada); tugas yang sudah lebih awal dibiarkan */
+    private void arm() {
+        long next = Long.MAX_VALUE;
+        for (Stage st : stages) {
+            if (st.size > 0 && st.due[st.head] < next) next = st.due[st.head];
+        }
+        if (next == Long.MAX_VALUE) {
+            disarm();
+            return;
+        }
+        if (armed != null && armedAt <= next) return;
+        disarm();
+        armedAt = next;
+        armed   = timer.schedule(fire, Math.max(0, next - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    private void disarm() {
+        if (armed != null) armed.cancel(false);
+        armed   = null;
+        armedAt = Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,147 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import model.ChatRequest;
+
+/**
+ * RequestRegistry - Index requestId -> ChatRequest untuk ChatController
+ *
+ * Open addressing (linear probing) langsung di atas array slot ChatRequest;
+ * id dibaca dari request di slot itu, jadi tidak ada boxing Integer.
+ * Slot yang dihapus diisi TOMBSTONE supaya rantai probe tidak putus, dan
+ * dibersihkan saat tabel di-rehash.
+ *
+ * Pembaca (get) tidak pernah lock: tabel dipublikasikan lewat field volatile
+ * dan tiap slot dibaca volatile lewat AtomicReferenceArray. Penulis
+ * (register/remove/clear) di-serialize oleh lock objek ini. Urutan insert
+ * disimpan terpisah untuk {@link #snapshot()}.
+ *
+ * Lock penulis ini satu-satunya lock global di jalur pesan buyer (SessionStore
+ * sendiri di-shard), dan sengaja dibiarkan: critical section-nya O(1) amortized
+ * (probe + satu add ke LinkedHashSet, rehash jarang), jauh lebih pendek dari
+ * kerja per pesan di luarnya (route, publish, render), dan menjaga urutan insert
+ * global untuk snapshot() tanpa merge antar stripe. Kalau registrasi suatu saat
+ * terlihat di profil, stripe per id di sini tanpa mengubah API.
+ *
+ * Key adalah requestId saat register; jangan ubah id request yang sudah terdaftar.
+ */
+public class RequestRegistry {
+
+    private static final ChatRequest TOMBSTONE = new ChatRequest(Integer.MIN_VALUE, "");
+    private static final int MIN_CAPACITY = 16;
+
+    private volatile AtomicReferenceArray<ChatRequest> table = new AtomicReferenceArray<>(MIN_CAPACITY);
+    private int live;        // slot berisi request
+    private int used;        // live + tombstone
+
+    private final Set<ChatRequest> order = new LinkedHashSet<>(); // identitas objek, O(1) remove
+
+    /** Daftarkan request; request lama dengan id yang sama diganti. */
+    public synchronized void register(ChatRequest request) {
+        int id = request.getRequestId();
+        if ((used + 1) * 2 > table.length()) rehash(live + 1);
+
+        AtomicReferenceArray<ChatRequest> t = table;
+        int mask = t.length() - 1;
+        int firstTombstone = -1;
+        for (int i = indexFor(id, mask); ; i = (i + 1) & mask) {
+            ChatRequest r = t.get(i);
+            if (r == null) {
+                if (firstTombstone >= 0) {
+                    i = firstTombstone;
+                } else {
+                    used++;
+                }
+                t.set(i, request);
+                live++;
+                order.add(request);
+                return;
+            }
+            if (r == TOMBSTONE) {
+                if (firstTombstone < 0) firstTombstone = i;
+            } else if (r.getRequestId() == id) {
+                t.set(i, request);
+                order.remove(r);
+                order.add(request);
+                return;
+            }
+        }
+    }
+
+    /** @return request dengan id ini, atau null. Tanpa lock. */
+    public ChatRequest get(int id) {
+        AtomicReferenceArray<ChatRequest> t = table;
+        int mask = t.length() - 1;
+        for (int i = indexFor(id, mask), probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            ChatRequest r = t.get(i);
+            if (r == null) return null;
+            if (r != TOMBSTONE && r.getRequestId() == id) return r;
+        }
+        return null;
+    }
+
+    public boolean contains(int id) {
+        return get(id) != null;
+    }
+
+    /** @return request yang dihapus, atau null jika tidak terdaftar */
+    public synchronized ChatRequest remove(int id) {
+        AtomicReferenceArray<ChatRequest> t = table;
+        int mask = t.length() - 1;
+        for (int i = indexFor(id, mask); ; i = (i + 1) & mask) {
+            ChatRequest r = t.get(i);
+            if (r == null) return null;
+            if (r != TOMBSTONE && r.getRequestId() == id) {
+                t.set(i, TOMBSTONE);
+                live--;
+                order.remove(r);
+                return r;
+            }
+        }
+    }
+
+    /** Salinan semua request, urut sesuai waktu register (sama dengan activeRequests lama) */
+    public synchronized List<ChatRequest> snapshot() {
+        return new ArrayList<>(order);
+    }
+
+    public synchronized int size() {
+        return live;
+    }
+
+    public synchronized void clear() {
+        table = new AtomicReferenceArray<>(MIN_CAPACITY);
+        live = 0;
+        used = 0;
+        order.clear();
+    }
+
+    /** Tabel baru (tanpa tombstone) dengan load factor <= 1/4 untuk {@code expected} request */
+    private void rehash(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expected * 4) capacity <<= 1;
+
+        AtomicReferenceArray<ChatRequest> old = table;
+        AtomicReferenceArray<ChatRequest> t = new AtomicReferenceArray<>(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < old.length(); j++) {
+            ChatRequest r = old.get(j);
+            if (r == null || r == TOMBSTONE) continue;
+            int i = indexFor(r.getRequestId(), mask);
+            while (t.get(i) != null) i = (i + 1) & mask;
+            t.set(i, r);
+        }
+        used = live;
+        table = t; // publikasi: pembaca yang masih memegang tabel lama tetap konsisten
+    }
+
+    /** Fibonacci hashing supaya id berurutan tersebar rata */
+    private static int indexFor(int id, int mask) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
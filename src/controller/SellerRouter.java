@@ -0,0 +1,161 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import service.KeywordMatcher;
+
+/**
+ * SellerRouter - Tentukan seller mana yang menerima pesan buyer
+ *
+ * Nama produk di katalog semua seller di-compile menjadi satu
+ * KeywordMatcher; tiap keyword menunjuk daftar seller yang menjualnya.
+ * Pesan di-scan sekali, jadi biaya routing sebanding dengan panjang pesan
+ * + jumlah seller yang cocok, bukan jumlah seller total.
+ *
+ *   - pesan menyebut produk   -> seller yang menjual produk itu
+ *                                + seller tanpa katalog (menerima semua)
+ *   - tidak ada produk dikenal -> broadcast ke semua seller
+ *
+ * Aman dari thread mana pun. Perubahan seller / katalog di-serialize lock
+ * objek ini dan langsung di-compile menjadi snapshot immutable; route()
+ * hanya membaca snapshot terakhir (field volatile) tanpa lock, jadi pesan
+ * dari banyak sesi buyer bisa di-route paralel.
+ */
+class SellerRouter {
+
+    // Sumber compile; hanya disentuh di bawah lock objek ini
+    private final Map<Integer, String[]> catalogs    = new HashMap<>(); // seller -> nama produk lowercase
+    private final List<Integer>          generalists = new ArrayList<>(); // seller tanpa katalog
+
+    private volatile Compiled compiled = compile(new HashMap<>(), new ArrayList<>());
+
+    /** Hasil compile: immutable, diganti utuh setiap ada perubahan */
+    private static final class Compiled {
+        final KeywordMatcher matcher;
+        final int[][]        sellersByKeyword;
+        final int[]          generalists;
+
+        Compiled(KeywordMatcher matcher, int[][] sellersByKeyword, int[] generalists) {
+            this.matcher          = matcher;
+            this.sellersByKeyword = sellersByKeyword;
+            this.generalists      = generalists;
+        }
+    }
+
+    /**
+     * Seller yang cocok dalam satu route; dibuat per panggilan supaya route() bisa paralel.
+     * Keyword yang muncul berulang di pesan hanya di-expand sekali, dan seller
+     * di-dedup lewat bit per index, jadi biayanya sebanding jumlah keyword berbeda
+     * + seller yang cocok (bukan kuadrat jumlah hit).
+     */
+    private static final class Hits implements IntConsumer {
+        private final int[][] sellersByKeyword;
+        private final BitSet  keywords = new BitSet();
+        final BitSet          sellers  = new BitSet();
+
+        Hits(int[][] sellersByKeyword) {
+            this.sellersByKeyword = sellersByKeyword;
+        }
+
+        @Override
+        public void accept(int keywordId) {
+            if (keywords.get(keywordId)) return;
+            keywords.set(keywordId);
+            for (int seller : sellersByKeyword[keywordId]) sellers.set(seller);
+        }
+    }
+
+    /** Seller baru, awalnya menerima semua pesan (belum punya katalog) */
+    synchronized void addSeller(int sellerIndex) {
+        if (!catalogs.containsKey(sellerIndex) && !generalists.contains(sellerIndex)) {
+            generalists.add(sellerIndex);
+            recompile();
+        }
+    }
+
+    /** Katalog kosong / null = seller menerima semua pesan */
+    synchronized void setCatalog(int sellerIndex, Collection<String> productNames) {
+        generalists.remove(Integer.valueOf(sellerIndex));
+        catalogs.remove(sellerIndex);
+        List<String> names = new ArrayList<>();
+        if (productNames != null) {
+            for (String n : productNames) {
+                String name = n == null ? "" : n.toLowerCase().trim();
+                if (!name.isEmpty()) names.add(name);
+            }
+        }
+        if (names.isEmpty()) {
+            generalists.add(sellerIndex);
+        } else {
+            catalogs.put(sellerIndex, names.toArray(new String[0]));
+        }
+        recompile();
+    }
+
+    synchronized void removeSeller(int sellerIndex) {
+        boolean changed = generalists.remove(Integer.valueOf(sellerIndex));
+        changed |= catalogs.remove(sellerIndex) != null;
+        if (changed) recompile();
+    }
+
+    /**
+     * @param message pesan buyer (case bebas)
+     * @return seller tujuan (urut naik), atau null = broadcast ke semua
+     */
+    int[] route(String message) {
+        Compiled c = compiled;
+        if (c.matcher.getKeywordCount() == 0 || message == null) return null;
+
+        Hits hits = new Hits(c.sellersByKeyword);
+        c.matcher.matchAll(message.toLowerCase(), hits);
+        if (hits.sellers.isEmpty()) return null;
+
+        // Seller tanpa katalog selalu ikut menerima; BitSet sudah urut naik
+        for (int seller : c.generalists) hits.sellers.set(seller);
+        BitSet set = hits.sellers;
+        int[] targets = new int[set.cardinality()];
+        for (int i = 0, seller = set.nextSetBit(0); seller >= 0; seller = set.nextSetBit(seller + 1)) {
+            targets[i++] = seller;
+        }
+        return targets;
+    }
+
+    synchronized int getCatalogSellerCount() {
+        return catalogs.size();
+    }
+
+    private void recompile() {
+        compiled = compile(catalogs, generalists);
+    }
+
+    private static Compiled compile(Map<Integer, String[]> catalogs, List<Integer> generalists) {
+        Map<String, List<Integer>> byName = new LinkedHashMap<>();
+        for (Map.Entry<Integer, String[]> e : catalogs.entrySet()) {
+            for (String name : e.getValue()) {
+                byName.computeIfAbsent(name, k -> new ArrayList<>()).add(e.getKey());
+            }
+        }
+
+        KeywordMatcher m = new KeywordMatcher();
+        int[][] sellers = new int[byName.size()][];
+        int id = 0;
+        for (Map.Entry<String, List<Integer>> e : byName.entrySet()) {
+            m.add(0, e.getKey());
+            List<Integer> list = e.getValue();
+            sellers[id] = new int[list.size()];
+            for (int i = 0; i < list.size(); i++) sellers[id][i] = list.get(i);
+            id++;
+        }
+        m.compile();
+
+        int[] general = new int[generalists.size()];
+        for (int i = 0; i < general.length; i++) general[i] = generalists.get(i);
+        return new Compiled(m, sellers, general);
+    }
+}
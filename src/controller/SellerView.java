@@ -0,0 +1,37 @@
+package controller;
+
+import model.ChatRequest;
+
+/**
+ * SellerView - Dashboard satu seller yang diisi controller
+ *
+ * Diimplementasikan SellerPanel (Swing) atau listener headless. Semua method
+ * dipanggil di UI executor milik controller.
+ */
+public interface SellerView {
+
+    void setController(ChatController controller);
+
+    int getSellerIndex();
+
+    String getSellerName();
+
+    /**
+     * @param layoutNow false kalau banyak request ditambah sekaligus;
+     *                  {@link #refreshLayout()} dipanggil setelah yang terakhir
+     */
+    void addRequest(ChatRequest request, boolean layoutNow);
+
+    void refreshLayout();
+
+    boolean hasRequest(int requestId);
+
+    void fillFormField(int requestId, int formIndex, String value);
+
+    /** Tandai form sedang menunggu AI suggestion */
+    void setFormBusy(int requestId, int formIndex, boolean busy);
+
+    void removeRequest(int requestId);
+
+    void clearAllRequests();
+}
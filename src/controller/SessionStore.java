@@ -0,0 +1,199 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import service.EventLog;
+
+/**
+ * SessionStore - Sesi buyer yang di-shard ke beberapa lock stripe
+ *
+ * Session id di-hash ke salah satu shard (jumlahnya pangkat 2); tiap shard
+ * punya HashMap dan lock sendiri. Buyer yang berbeda hampir selalu jatuh di
+ * shard berbeda, jadi ribuan sesi bisa jalan paralel tanpa lock global.
+ *
+ * Sesi yang tidak aktif lebih lama dari idle timeout di-evict oleh thread
+ * daemon; listener dipanggil di luar lock untuk membersihkan request dan
+ * penawaran milik sesi itu. Sesi pinned (buyer lokal) tidak pernah di-evict.
+ *
+ * ChatController menjalankan pesan & Choose buyer langsung di thread pemanggil
+ * di bawah lock shard sesinya, jadi striping inilah yang membuat sesi berbeda
+ * diproses paralel. {@link #reset} (clear satu sesi) dan
+ * {@link #withAllShardsLocked} (reset admin) memastikan reset tidak bisa
+ * terselip di tengah satu pesan.
+ */
+class SessionStore {
+
+    private static final class Shard {
+        final Map<String, BuyerSession> sessions = new HashMap<>();
+    }
+
+    private final Shard[] shards;
+    private final int     mask;
+    private final long    idleTimeoutMillis;
+    private final Consumer<BuyerSession> onEvicted;
+    private final EventLog log;
+    private final ScheduledExecutorService evictor;
+
+    SessionStore(int shardCount, long idleTimeoutMillis, Consumer<BuyerSession> onEvicted, EventLog log) {
+        int n = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+        this.shards = new Shard[n];
+        for (int i = 0; i < n; i++) shards[i] = new Shard();
+        this.mask = n - 1;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.onEvicted = onEvicted;
+        this.log = log;
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis / 4, 60_000));
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /** Jalankan {@code action} pada sesi (dibuat kalau belum ada) di bawah lock shard-nya */
+    <R> R withSession(String sessionId, Function<BuyerSession, R> action) {
+        Shard shard = shardFor(sessionId);
+        long now = System.currentTimeMillis();
+        synchronized (shard) {
+            BuyerSession s = shard.sessions.get(sessionId);
+            if (s == null) {
+                s = new BuyerSession(sessionId, false, now);
+                shard.sessions.put(sessionId, s);
+            }
+            s.touch(now);
+            return action.apply(s);
+        }
+    }
+
+    /** Seperti withSession tapi tidak membuat sesi baru dan tidak menghitung sebagai aktivitas */
+    <R> R ifPresent(String sessionId, Function<BuyerSession, R> action) {
+        if (sessionId == null) return null;
+        Shard shard = shardFor(sessionId);
+        synchronized (shard) {
+            BuyerSession s = shard.sessions.get(sessionId);
+            return s == null ? null : action.apply(s);
+        }
+    }
+
+    /** Sesi yang tidak pernah di-evict */
+    void pin(String sessionId) {
+        Shard shard = shardFor(sessionId);
+        synchronized (shard) {
+            BuyerSession s = shard.sessions.get(sessionId);
+            if (s == null || !s.isPinned()) {
+                shard.sessions.put(sessionId, new BuyerSession(sessionId, true, System.currentTimeMillis()));
+            }
+        }
+    }
+
+    /**
+     * Ganti sesi dengan sesi kosong (pinned tetap pinned), lalu jalankan {@code action}
+     * pada sesi lama masih di bawah lock shard-nya, jadi pesan sesi ini yang datang
+     * bersamaan selesai seluruhnya sebelum reset atau masuk ke sesi baru.
+     *
+     * @return hasil action, atau null jika sesi tidak ada
+     */
+    <R> R reset(String sessionId, Function<BuyerSession, R> action) {
+        if (sessionId == null) return null;
+        Shard shard = shardFor(sessionId);
+        synchronized (shard) {
+            BuyerSession old = shard.sessions.get(sessionId);
+            if (old == null) return null;
+            shard.sessions.put(sessionId, new BuyerSession(sessionId, old.isPinned(), System.currentTimeMillis()));
+            return action.apply(old);
+        }
+    }
+
+    /**
+     * Jalankan {@code action} sambil memegang lock semua shard (urut index,
+     * reentrant), jadi tidak ada withSession / ifPresent lain yang berjalan
+     * bersamaan. Jangan panggil listener yang bisa menunggu thread lain.
+     */
+    void withAllShardsLocked(Runnable action) {
+        lockFrom(0, action);
+    }
+
+    private void lockFrom(int shard, Runnable action) {
+        if (shard == shards.length) {
+            action.run();
+            return;
+        }
+        synchronized (shards[shard]) {
+            lockFrom(shard + 1, action);
+        }
+    }
+
+    /** Hapus semua sesi; sesi pinned diganti sesi kosong */
+    void clear() {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                List<String> pinned = new ArrayList<>();
+                for (BuyerSession s : shard.sessions.values()) {
+                    if (s.isPinned()) pinned.add(s.getId());
+                }
+                shard.sessions.clear();
+                long now = System.currentTimeMillis();
+                for (String id : pinned) shard.sessions.put(id, new BuyerSession(id, true, now));
+            }
+        }
+    }
+
+    int size() {
+        int n = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                n += shard.sessions.size();
+            }
+        }
+        return n;
+    }
+
+    /** @return jumlah sesi yang di-evict */
+    int evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        int evicted = 0;
+        for (Shard shard : shards) {
+            List<BuyerSession> expired = null;
+            synchronized (shard) {
+                Iterator<BuyerSession> it = shard.sessions.values().iterator();
+                while (it.hasNext()) {
+                    BuyerSession s = it.next();
+                    if (!s.isPinned() && s.getLastActivity() < cutoff) {
+                        it.remove();
+                        if (expired == null) expired = new ArrayList<>();
+                        expired.add(s);
+                    }
+                }
+            }
+            if (expired == null) continue;
+            for (BuyerSession s : expired) {
+                try {
+                    onEvicted.accept(s); // di luar lock: boleh menyentuh shard lain
+                } catch (RuntimeException e) {
+                    log.error("session_evict_failed").field("session", s.getId()).field("error", e).commit();
+                }
+            }
+            evicted += expired.size();
+        }
+        return evicted;
+    }
+
+    void shutdown() {
+        evictor.shutdownNow();
+    }
+
+    private Shard shardFor(String sessionId) {
+        int h = sessionId.hashCode();
+        return shards[(h ^ (h >>> 16)) & mask];
+    }
+}
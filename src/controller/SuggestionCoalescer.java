@@ -0,0 +1,106 @@
+package controller;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * SuggestionCoalescer - Gabungkan klik AI yang berulang untuk form yang sama
+ *
+ * Key = (requestId, formIndex, sellerIndex). Selama masih ada generate yang
+ * berjalan untuk key itu, klik berikutnya ikut menunggu hasil yang sama.
+ * Setelah selesai, klik yang datang masih di dalam debounce window seller
+ * (dihitung dari generate terakhir dimulai) juga diabaikan. Jadi satu burst
+ * klik hanya memicu satu generate.
+ *
+ * Jejak "terakhir dimulai" yang window-nya sudah lewat dibuang oleh sweep
+ * yang jalan tiap kali map tumbuh dua kali lipat dari sweep sebelumnya,
+ * jadi ukurannya mengikuti klik yang masih relevan, bukan semua klik yang
+ * pernah ada (amortized O(1) per klik).
+ *
+ * Hanya dipakai dari UI executor controller, jadi tidak perlu sinkronisasi.
+ */
+class SuggestionCoalescer {
+
+    private final Map<Long, CompletableFuture<String>> inFlight    = new HashMap<>();
+    private final Map<Long, Long>                      lastStarted = new HashMap<>();
+    private final Map<Integer, Long>                   debounceBySeller = new HashMap<>();
+    private long defaultDebounceMillis;
+
+    private static final int MIN_SWEEP_SIZE = 64;
+    private int sweepAt = MIN_SWEEP_SIZE;       // sweep berikutnya saat lastStarted sebesar ini
+
+    private long started;
+    private long suppressed;
+
+    SuggestionCoalescer(long defaultDebounceMillis) {
+        this.defaultDebounceMillis = defaultDebounceMillis;
+    }
+
+    /** requestId | formIndex | sellerIndex dalam satu long */
+    static long key(int requestId, int formIndex, int sellerIndex) {
+        return ((long) requestId << 32) | ((long) (formIndex & 0xFF) << 24) | (sellerIndex & 0xFFFFFF);
+    }
+
+    /**
+     * @return future baru kalau klik ini memang perlu generate,
+     *         atau null kalau digabung dengan generate yang sedang/baru saja jalan
+     */
+    CompletableFuture<String> begin(long key, int sellerIndex, Supplier<CompletableFuture<String>> generate) {
+        long now = System.currentTimeMillis();
+        Long last = lastStarted.get(key);
+        if (inFlight.containsKey(key) || (last != null && now - last < getDebounceMillis(sellerIndex))) {
+            suppressed++;
+            return null;
+        }
+        CompletableFuture<String> future = generate.get();
+        inFlight.put(key, future);
+        lastStarted.put(key, now);
+        started++;
+        if (lastStarted.size() >= sweepAt) pruneExpired(now);
+        return future;
+    }
+
+    /** Buang key yang debounce window seller-nya sudah lewat (klik baru tidak akan ditahan lagi) */
+    private void pruneExpired(long now) {
+        Iterator<Map.Entry<Long, Long>> it = lastStarted.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Long> e = it.next();
+            int sellerIndex = (int) (e.getKey() & 0xFFFFFF);
+            if (now - e.getValue() >= getDebounceMillis(sellerIndex)) it.remove();
+        }
+        sweepAt = Math.max(MIN_SWEEP_SIZE, lastStarted.size() * 2);
+    }
+
+    /** @return false jika hasil ini sudah tidak berlaku (di-cancel / di-clear) */
+    boolean finish(long key, CompletableFuture<String> future) {
+        return inFlight.remove(key, future);
+    }
+
+    void cancelAll() {
+        for (CompletableFuture<String> f : inFlight.values()) f.cancel(false);
+        inFlight.clear();
+        lastStarted.clear();
+        sweepAt = MIN_SWEEP_SIZE;
+    }
+
+    long getDebounceMillis(int sellerIndex) {
+        Long millis = debounceBySeller.get(sellerIndex);
+        return millis != null ? millis : defaultDebounceMillis;
+    }
+
+    void setDebounceMillis(int sellerIndex, long millis) {
+        debounceBySeller.put(sellerIndex, Math.max(0, millis));
+    }
+
+    void setDefaultDebounceMillis(long millis) {
+        this.defaultDebounceMillis = Math.max(0, millis);
+    }
+
+    long getStartedCount()    { return started; }
+    long getSuppressedCount() { return suppressed; }
+    int  getInFlightCount()   { return inFlight.size(); }
+    int  getTrackedCount()    { return lastStarted.size(); }
+}
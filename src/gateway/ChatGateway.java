@@ -0,0 +1,566 @@
+package gateway;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import controller.CartSnapshot;
+import controller.ChatController;
+import controller.ChatEvent;
+import controller.ChatEventBus;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import model.Money;
+
+/**
+ * ChatGateway - HTTP gateway untuk tablet buyer & seller di LAN
+ *
+ * Dibangun di atas com.sun.net.httpserver. Tiap exchange ditangani di
+ * virtual thread kalau JVM-nya mendukung (Java 21+, dicari lewat reflection
+ * karena target build Java 8), selain itu di cached thread pool. Handler
+ * boleh blocking. Pesan & Choose buyer memanggil controller langsung (diproses
+ * paralel per sesi); panggilan seller dipindah ke UI executor controller.
+ *
+ * Endpoint (parameter lewat query string atau body form-urlencoded):
+ *
+ *   POST /buyer/session                                          -> {session, token}
+ *   POST /buyer/message   session, token, text                   -> {requestId}
+ *   POST /buyer/choose    session, token, requestId, form, message, qty, price
+ *   GET  /buyer/events    session, token     (SSE: reply, cart, cleared)
+ *   GET  /buyer/cart      session, token                         -> {version, total, lines}
+ *   POST /seller/join     [name], [catalog=produk1,produk2]      -> {sellerIndex, token}
+ *   POST /seller/leave    seller, token
+ *   POST /seller/suggest  seller, token, requestId, form    (hasil lewat SSE: suggestion)
+ *   POST /seller/submit   seller, token, requestId, form, value
+ *   GET  /seller/events   seller, token      (SSE: request, busy, suggestion, removed, cleared)
+ *   GET  /metrics                        (teks: p50/p99/p999 latensi per tahap & seller)
+ *
+ * Session id buyer dan token dikeluarkan server, bukan dipilih client:
+ * token buyer = HMAC-SHA256(session) dengan kunci acak per proses, jadi
+ * tidak perlu disimpan; token seller acak per join. Route tanpa token yang
+ * cocok dijawab 401. Default-nya gateway hanya listen di loopback; buka ke
+ * LAN dengan host eksplisit (mis. 0.0.0.0).
+ *
+ * Event SSE "cart" berisi state absolut satu baris (line, qty, lineTotal,
+ * total) plus version keranjang yang naik 1 per perubahan. Antrean SSE
+ * membuang frame kalau tablet terlalu lambat, jadi client yang melihat
+ * version loncat (atau mundur: sesi di-evict lalu dibuat ulang) harus
+ * mengambil seluruh keranjang lewat GET /buyer/cart.
+ *
+ * Balasan seller ke buyer didorong lewat koneksi SSE yang tetap terbuka
+ * (Server-Sent Events: cukup HTTP biasa, tablet cukup pakai EventSource).
+ */
+public class ChatGateway {
+
+    private static final long   UI_TIMEOUT_MILLIS = 5_000;
+    private static final String TOKEN_MAC = "HmacSHA256";
+
+    static {
+        // HttpServer menulis header dan body respons terpisah; tanpa TCP_NODELAY, Nagle +
+        // delayed ACK client menahan tiap respons ~40 ms. Harus di-set sebelum HttpServer
+        // pertama dibuat (dibaca sekali oleh sun.net.httpserver.ServerConfig).
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ChatController controller;
+    private final Executor       uiExecutor;
+    private final HttpServer     server;
+    private final ExecutorService connections;
+    private final ChatEventBus.Subscription subscription;
+    private final SecureRandom  random = new SecureRandom();
+    private final SecretKeySpec tokenKey;
+
+    // session id -> stream buyer; hanya untuk sesi remote
+    private final Map<String, Set<EventStream>> buyerStreams = new ConcurrentHashMap<>();
+    private final Map<Integer, RemoteSeller>    sellers      = new ConcurrentHashMap<>();
+
+    /** Listen di loopback saja */
+    public ChatGateway(ChatController controller, Executor uiExecutor, int port) throws IOException {
+        this(controller, uiExecutor, InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * @param uiExecutor executor yang sama dengan yang dipakai controller
+     * @param address    alamat listen; wildcard (0.0.0.0) supaya tablet di LAN bisa masuk
+     * @param port       0 = port bebas (lihat {@link #getPort()})
+     */
+    public ChatGateway(ChatController controller, Executor uiExecutor, InetAddress address, int port)
+            throws IOException {
+        this.controller  = controller;
+        this.uiExecutor  = uiExecutor;
+        byte[] key = new byte[32];
+        random.nextBytes(key);
+        this.tokenKey    = new SecretKeySpec(key, TOKEN_MAC);
+        this.connections = newConnectionExecutor();
+        this.server      = HttpServer.create(new InetSocketAddress(address, port), 0);
+        server.setExecutor(connections);
+
+        route("/buyer/session",  "POST", this::buyerSession);
+        route("/buyer/message",  "POST", this::buyerMessage);
+        route("/buyer/choose",   "POST", this::buyerChoose);
+        route("/buyer/events",   "GET",  this::buyerEvents);
+        route("/buyer/cart",     "GET",  this::buyerCart);
+        route("/seller/join",    "POST", this::sellerJoin);
+        route("/seller/leave",   "POST", this::sellerLeave);
+        route("/seller/suggest", "POST", this::sellerSuggest);
+        route("/seller/submit",  "POST", this::sellerSubmit);
+        route("/seller/events",  "GET",  this::sellerEvents);
+        route("/metrics",        "GET",  this::metrics);
+
+        this.subscription = controller.subscribeEvents("gateway", this::dispatchToBuyers);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("[ChatGateway] Listening di " + server.getAddress().getAddress().getHostAddress()
+                + ":" + getPort() + " ("
+                + (isVirtualThreads() ? "virtual threads" : "thread pool") + ")");
+    }
+
+    public void stop() {
+        controller.unsubscribeEvents(subscription);
+        for (Set<EventStream> set : buyerStreams.values()) for (EventStream s : set) s.close();
+        for (RemoteSeller s : sellers.values()) s.closeStreams();
+        server.stop(0);
+        connections.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public boolean isVirtualThreads() {
+        return !(connections instanceof ThreadPoolExecutor);
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Buyer
+    // ──────────────────────────────────────────────────────────
+    private String buyerSession(Map<String, String> p) {
+        String session = "b-" + randomToken(12);
+        return Json.object().field("session", session).field("token", buyerToken(session)).toString();
+    }
+
+    private String buyerMessage(Map<String, String> p) throws Exception {
+        String session = session(p);
+        String text    = required(p, "text");
+        int requestId  = controller.onBuyerMessageSent(session, text); // thread-safe; sesi lain tidak menunggu
+        return Json.object().field("requestId", requestId).toString();
+    }
+
+    private String buyerChoose(Map<String, String> p) throws Exception {
+        String session = session(p);
+        int requestId  = intParam(p, "requestId");
+        int form       = intParam(p, "form");
+        String message = required(p, "message");
+        int qty        = p.containsKey("qty") ? intParam(p, "qty") : 1;
+        Money price    = p.containsKey("price") ? Money.of(longParam(p, "price")) : Money.ZERO;
+        if (qty < 1) throw new IllegalArgumentException("qty minimal 1");
+        if (!controller.onBuyerChoose(session, requestId, form, message, qty, price)) {
+            throw new NotFound("request bukan milik sesi ini");
+        }
+        return "{\"ok\":true}";
+    }
+
+    /** Seluruh keranjang untuk resync setelah version SSE loncat */
+    private String buyerCart(Map<String, String> p) {
+        CartSnapshot cart = controller.getCart(session(p));
+        List<Json> lines = new ArrayList<>(cart.getLines().size());
+        for (CartSnapshot.Line line : cart.getLines()) {
+            lines.add(Json.object().field("requestId", line.getRequestId()).field("form", line.getFormIndex())
+                    .field("line", line.getText()).field("qty", line.getQuantity())
+                    .field("lineTotal", rupiah(line.getLineMinor() > 0 ? line.getLineMinor() : -1)));
+        }
+        return Json.object().field("version", cart.getVersion()).field("total", rupiah(cart.getTotalMinor()))
+                .field("lines", lines).toString();
+    }
+
+    private void buyerEvents(HttpExchange exchange, Map<String, String> p) throws IOException {
+        String session = session(p);
+        EventStream stream = new EventStream();
+        buyerStreams.compute(session, (k, set) -> {
+            if (set == null) set = new CopyOnWriteArraySet<>();
+            set.add(stream);
+            return set;
+        });
+        try {
+            stream.pump(exchange);
+        } finally {
+            buyerStreams.computeIfPresent(session, (k, set) -> {
+                set.remove(stream);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    /** Consumer event bus (UI executor): teruskan event sesi remote ke stream-nya */
+    private void dispatchToBuyers(ChatEvent e, boolean endOfBatch) {
+        String session = e.getSessionId();
+        if (e.getType() == ChatEvent.Type.CHATS_CLEARED && session == null) { // reset admin: semua sesi
+            for (Set<EventStream> set : buyerStreams.values()) for (EventStream s : set) s.send("cleared", "{}");
+            return;
+        }
+        if (session == null) return;
+        Set<EventStream> set = buyerStreams.get(session);
+        if (set == null || set.isEmpty()) return;
+
+        String event, json;
+        switch (e.getType()) {
+            case CHATS_CLEARED:
+                event = "cleared";
+                json  = "{}";
+                break;
+            case FORM_SUBMITTED:
+                event = "reply";
+                json  = Json.object().field("requestId", e.getRequestId()).field("form", e.getFormIndex())
+                        .field("seller", e.getSellerIndex()).field("text", e.getText()).toString();
+                break;
+            case CART_CHANGED:
+                event = "cart";
+                json  = Json.object().field("version", e.getCartVersion())
+                        .field("requestId", e.getRequestId()).field("form", e.getFormIndex())
+                        .field("line", e.getText()).field("qty", e.getQuantity())
+                        .field("lineTotal", rupiah(e.getLineAmount() > 0 ? e.getLineAmount() : -1))
+                        .field("total", rupiah(e.getAmount()))
+                        .toString();
+                break;
+            default:
+                return;
+        }
+        for (EventStream s : set) s.send(event, json);
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Seller
+    // ──────────────────────────────────────────────────────────
+    private String sellerJoin(Map<String, String> p) throws Exception {
+        String catalog = p.get("catalog");
+        RemoteSeller joined = onUi(() -> {
+            int i = controller.allocateSellerIndex();
+            String name = p.containsKey("name") ? p.get("name") : "Seller " + (i + 1);
+            RemoteSeller seller = new RemoteSeller(i, name, randomToken(24));
+            sellers.put(i, seller);
+            controller.addSellerPanel(seller);
+            if (catalog != null) controller.setSellerCatalog(i, Arrays.asList(catalog.split(",")));
+            return seller;
+        });
+        return Json.object().field("sellerIndex", joined.getSellerIndex()).field("token", joined.getToken()).toString();
+    }
+
+    private String sellerLeave(Map<String, String> p) throws Exception {
+        RemoteSeller seller = seller(p);
+        onUi(() -> {
+            controller.removeSellerPanel(seller.getSellerIndex());
+            return null;
+        });
+        sellers.remove(seller.getSellerIndex());
+        seller.closeStreams();
+        return "{\"ok\":true}";
+    }
+
+    private String sellerSuggest(Map<String, String> p) throws Exception {
+        RemoteSeller seller = seller(p);
+        int requestId = intParam(p, "requestId");
+        int form      = intParam(p, "form");
+        onUi(() -> {
+            if (!seller.hasRequest(requestId)) throw new NotFound("request tidak di-route ke seller ini");
+            controller.onAISuggestRequested(requestId, form, seller.getSellerIndex());
+            return null;
+        });
+        return "{\"ok\":true}";
+    }
+
+    private String sellerSubmit(Map<String, String> p) throws Exception {
+        RemoteSeller seller = seller(p);
+        int requestId = intParam(p, "requestId");
+        int form      = intParam(p, "form");
+        String value  = required(p, "value");
+        onUi(() -> {
+            if (!seller.hasRequest(requestId)) throw new NotFound("request tidak di-route ke seller ini");
+            controller.onSellerFormSubmit(requestId, form, value, seller.getSellerIndex());
+            return null;
+        });
+        return "{\"ok\":true}";
+    }
+
+    private void sellerEvents(HttpExchange exchange, Map<String, String> p) throws IOException {
+        RemoteSeller seller = seller(p);
+        EventStream stream = new EventStream();
+        seller.attach(stream);
+        try {
+            stream.pump(exchange);
+        } finally {
+            seller.detach(stream);
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Metrics
+    // ──────────────────────────────────────────────────────────
+
+    /** Histogram lock-free: dibaca langsung di thread koneksi, tidak lewat UI executor */
+    private void metrics(HttpExchange exchange, Map<String, String> p) throws IOException {
+        byte[] bytes = controller.getLatencyMetrics().toText().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  HTTP plumbing
+    // ──────────────────────────────────────────────────────────
+    private interface JsonEndpoint {
+        String handle(Map<String, String> params) throws Exception;
+    }
+
+    private interface StreamEndpoint {
+        void handle(HttpExchange exchange, Map<String, String> params) throws IOException;
+    }
+
+    private void route(String path, String method, JsonEndpoint endpoint) {
+        server.createContext(path, exchange -> handle(exchange, path, method, p -> {
+            send(exchange, 200, endpoint.handle(p));
+        }));
+    }
+
+    private void route(String path, String method, StreamEndpoint endpoint) {
+        server.createContext(path, exchange -> handle(exchange, path, method, p -> endpoint.handle(exchange, p)));
+    }
+
+    private interface Body {
+        void run(Map<String, String> params) throws Exception;
+    }
+
+    private void handle(HttpExchange exchange, String path, String method, Body body) throws IOException {
+        try {
+            if (!exchange.getRequestURI().getPath().equals(path)) {
+                send(exchange, 404, error("tidak ditemukan"));
+            } else if (!method.equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                send(exchange, 405, error("gunakan " + method));
+            } else {
+                body.run(params(exchange));
+            }
+        } catch (Unauthorized e) {
+            send(exchange, 401, error(e.getMessage()));
+        } catch (NotFound e) {
+            send(exchange, 404, error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } catch (TimeoutException e) {
+            send(exchange, 503, error("controller sibuk"));
+        } catch (IOException e) {
+            // client putus; tidak ada yang perlu dikirim
+        } catch (Exception e) {
+            System.err.println("[ChatGateway] " + path + " gagal: " + e);
+            send(exchange, 500, error("internal error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /** Jalankan di UI executor controller dan tunggu hasilnya */
+    private <T> T onUi(Callable<T> task) throws Exception {
+        FutureTask<T> future = new FutureTask<>(task);
+        uiExecutor.execute(future);
+        try {
+            try {
+                return future.get(UI_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Client dapat 503: task jangan sampai tetap jalan belakangan. Kalau sudah
+                // terlanjur mulai, tunggu selesai supaya jawabannya sesuai yang terjadi.
+                if (future.cancel(false)) throw e;
+                return future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) {
+        try {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // header sudah terkirim / client putus
+        }
+    }
+
+    /** Minor unit -> "Rp ...", negatif = belum ada harga (null) */
+    private static String rupiah(long minor) {
+        return minor < 0 ? null : Money.ofMinor(minor).toRupiahString();
+    }
+
+    private static String error(String message) {
+        return Json.object().field("error", message).toString();
+    }
+
+    /** Query string + body form-urlencoded (body menang kalau nama sama) */
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            parseForm(new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> into) throws UnsupportedEncodingException {
+        if (form == null || form.isEmpty()) return;
+        for (String pair : form.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String name  = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            into.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int n;
+        while ((n = in.read(chunk)) > 0) buf.write(chunk, 0, n);
+        return buf.toByteArray();
+    }
+
+    private static String required(Map<String, String> p, String name) {
+        String v = p.get(name);
+        if (v == null || v.trim().isEmpty()) throw new IllegalArgumentException("parameter '" + name + "' wajib diisi");
+        return v;
+    }
+
+    private static int intParam(Map<String, String> p, String name) {
+        try {
+            return Integer.parseInt(required(p, name).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("parameter '" + name + "' harus angka");
+        }
+    }
+
+    private static long longParam(Map<String, String> p, String name) {
+        try {
+            return Long.parseLong(required(p, name).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("parameter '" + name + "' harus angka");
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Token
+    // ──────────────────────────────────────────────────────────
+
+    /** Request tanpa token yang cocok -> 401 */
+    private static final class Unauthorized extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Unauthorized(String message) {
+            super(message);
+        }
+    }
+
+    /** Request yang tidak ada / bukan milik pemanggil -> 404 (tidak membocorkan request sesi lain) */
+    private static final class NotFound extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        NotFound(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Sesi buyer remote yang dikeluarkan /buyer/session. Sesi lokal (jendela
+     * Swing) tidak pernah punya token, jadi tidak bisa dipakai lewat gateway.
+     */
+    private String session(Map<String, String> p) {
+        String session = required(p, "session").trim();
+        String token   = p.get("token");
+        if (token == null || !MessageDigest.isEqual(buyerToken(session).getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            throw new Unauthorized("token sesi tidak valid");
+        }
+        return session;
+    }
+
+    private RemoteSeller seller(Map<String, String> p) {
+        RemoteSeller seller = sellers.get(intParam(p, "seller"));
+        if (seller == null) throw new IllegalArgumentException("seller tidak terdaftar di gateway");
+        if (!seller.acceptsToken(p.get("token"))) throw new Unauthorized("token seller tidak valid");
+        return seller;
+    }
+
+    private String buyerToken(String session) {
+        try {
+            Mac mac = Mac.getInstance(TOKEN_MAC); // murah dibuat; Mac tidak thread-safe
+            mac.init(tokenKey);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(session.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(TOKEN_MAC + " tidak tersedia", e); // wajib ada di setiap JRE
+        }
+    }
+
+    private String randomToken(int bytes) {
+        byte[] b = new byte[bytes];
+        random.nextBytes(b);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(b);
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Thread koneksi
+    // ──────────────────────────────────────────────────────────
+
+    /** Virtual thread per exchange kalau tersedia (Java 21+), selain itu cached pool */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger n = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "gateway-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
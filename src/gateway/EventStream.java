@@ -0,0 +1,70 @@
+package gateway;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EventStream - Satu koneksi Server-Sent Events ke tablet buyer / seller
+ *
+ * Producer (UI executor controller) hanya memasukkan frame ke antrean
+ * terbatas, tidak pernah menunggu jaringan. Thread koneksi (virtual thread
+ * kalau tersedia) yang menulis ke socket. Kalau client terlalu lambat dan
+ * antrean penuh, frame terbaru dibuang dan dihitung di {@link #getDropped()}.
+ */
+class EventStream {
+
+    private static final int  QUEUE_CAPACITY      = 1024;
+    private static final long HEARTBEAT_MILLIS    = 15_000;
+    private static final String CLOSE = new String("close"); // sentinel, dibandingkan dengan ==
+
+    private final BlockingQueue<String> frames = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+
+    /** Antrekan satu event; aman dipanggil dari thread mana pun */
+    void send(String event, String json) {
+        if (closed) return;
+        if (!frames.offer("event: " + event + "\ndata: " + json + "\n\n")) dropped.incrementAndGet();
+    }
+
+    void close() {
+        closed = true;
+        frames.offer(CLOSE);
+    }
+
+    boolean isClosed()  { return closed; }
+    long    getDropped() { return dropped.get(); }
+
+    /** Tulis frame sampai client putus atau stream ditutup (blocking, di thread koneksi) */
+    void pump(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0); // chunked, tanpa panjang
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(": connected\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            while (!closed) {
+                String frame = frames.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                if (frame == CLOSE) break;
+                // Heartbeat saat idle supaya koneksi putus ketahuan
+                out.write((frame != null ? frame : ": ping\n\n").getBytes(StandardCharsets.UTF_8));
+                // Frame yang sudah antre ikut dikirim dalam satu flush
+                while ((frame = frames.poll()) != null && frame != CLOSE) {
+                    out.write(frame.getBytes(StandardCharsets.UTF_8));
+                }
+                out.flush();
+                if (frame == CLOSE) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closed = true;
+        }
+    }
+}
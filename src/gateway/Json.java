@@ -0,0 +1,81 @@
+package gateway;
+
+import java.util.List;
+
+/**
+ * Json - Builder objek JSON datar untuk respons gateway
+ *
+ * Gateway hanya mengirim objek satu tingkat (angka, boolean, string) plus
+ * array objek seperti itu, jadi cukup StringBuilder + escape string; tidak
+ * perlu library JSON.
+ */
+final class Json {
+
+    private final StringBuilder sb = new StringBuilder("{");
+
+    private Json() {
+    }
+
+    static Json object() {
+        return new Json();
+    }
+
+    Json field(String name, String value) {
+        key(name);
+        if (value == null) sb.append("null");
+        else quote(value);
+        return this;
+    }
+
+    Json field(String name, long value) {
+        key(name);
+        sb.append(value);
+        return this;
+    }
+
+    Json field(String name, boolean value) {
+        key(name);
+        sb.append(value);
+        return this;
+    }
+
+    Json field(String name, List<Json> objects) {
+        key(name);
+        sb.append('[');
+        for (int i = 0; i < objects.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(objects.get(i));
+        }
+        sb.append(']');
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString() + "}";
+    }
+
+    private void key(String name) {
+        if (sb.length() > 1) sb.append(',');
+        quote(name);
+        sb.append(':');
+    }
+
+    private void quote(String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n");  break;
+                case '\r': sb.append("\\r");  break;
+                case '\t': sb.append("\\t");  break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,96 @@
+package gateway;
+
+import controller.ChatController;
+import controller.SellerView;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import model.ChatRequest;
+
+/**
+ * RemoteSeller - Seller di tablet: dashboard-nya diteruskan sebagai SSE
+ *
+ * Didaftarkan ke controller seperti SellerPanel, jadi routing, AI suggest
+ * dan arsip berlaku sama. Method SellerView dipanggil di UI executor;
+ * stream hanya menerima frame di antrean masing-masing.
+ */
+class RemoteSeller implements SellerView {
+
+    private final int    sellerIndex;
+    private final String sellerName;
+    private final String token;    // dikeluarkan gateway saat join; wajib di setiap route seller
+    private final Set<Integer> requestIds = new HashSet<>(); // hanya disentuh di UI executor
+    private final Set<EventStream> streams = new CopyOnWriteArraySet<>();
+
+    RemoteSeller(int sellerIndex, String sellerName, String token) {
+        this.sellerIndex = sellerIndex;
+        this.sellerName  = sellerName;
+        this.token       = token;
+    }
+
+    String getToken() { return token; }
+
+    /** Perbandingan waktu-konstan supaya token tidak bisa ditebak per karakter */
+    boolean acceptsToken(String candidate) {
+        return candidate != null && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                candidate.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void attach(EventStream stream) { streams.add(stream); }
+    void detach(EventStream stream) { streams.remove(stream); }
+
+    void closeStreams() {
+        for (EventStream s : streams) s.close();
+        streams.clear();
+    }
+
+    @Override public void   setController(ChatController controller) { }
+    @Override public int    getSellerIndex() { return sellerIndex; }
+    @Override public String getSellerName()  { return sellerName; }
+
+    @Override
+    public void addRequest(ChatRequest request, boolean layoutNow) {
+        requestIds.add(request.getRequestId());
+        push("request", Json.object()
+                .field("requestId", request.getRequestId())
+                .field("label", request.getRequestLabel())
+                .field("message", request.getBuyerMessage())
+                .toString());
+    }
+
+    @Override public void refreshLayout() { }
+
+    @Override
+    public boolean hasRequest(int requestId) {
+        return requestIds.contains(requestId);
+    }
+
+    @Override
+    public void fillFormField(int requestId, int formIndex, String value) {
+        push("suggestion", Json.object()
+                .field("requestId", requestId).field("form", formIndex).field("text", value).toString());
+    }
+
+    @Override
+    public void setFormBusy(int requestId, int formIndex, boolean busy) {
+        push("busy", Json.object()
+                .field("requestId", requestId).field("form", formIndex).field("busy", busy).toString());
+    }
+
+    @Override
+    public void removeRequest(int requestId) {
+        if (requestIds.remove(requestId)) push("removed", Json.object().field("requestId", requestId).toString());
+    }
+
+    @Override
+    public void clearAllRequests() {
+        requestIds.clear();
+        push("cleared", "{}");
+    }
+
+    private void push(String event, String json) {
+        for (EventStream s : streams) s.send(event, json);
+    }
+}
@@ -2,6 +2,11 @@ package main;
 
 import controller.ChatController;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import javax.swing.*;
 import ui.BuyerPanel;
 import ui.SellerPanel;
@@ -10,54 +15,78 @@ import ui.SellerPanel;
  * ChatApplication - Entry point
  *
  * PERUBAHAN BESAR:
- * - Setiap panel (1 buyer + 3 seller) tampil sebagai JFrame TERPISAH
- * - Total 4 jendela, berjejer otomatis di layar
+ * - Setiap panel (1 buyer + N seller) tampil sebagai JFrame TERPISAH
+ * - Mulai dengan 3 seller; seller bisa ditambah (menu buyer) dan keluar (tutup jendela)
  * - Semua terhubung melalui 1 ChatController yang sama
  */
 public class ChatApplication {
 
     private ChatController controller;
     private BuyerFrame     buyerFrame;
-    private SellerFrame[]  sellerFrames = new SellerFrame[3];
+    private List<SellerFrame> sellerFrames = new ArrayList<>();
+
+    private static final int INITIAL_SELLERS = 3;
+    private static final int FRAME_W = 520;
+    private static final int FRAME_H = 700;
 
     public ChatApplication() {
         // 1 controller untuk semua
-        controller = new ChatController();
+        controller = new ChatController(SwingUtilities::invokeLater);
 
         // Buat buyer frame
-        buyerFrame = new BuyerFrame(controller);
+        buyerFrame = new BuyerFrame(this, controller);
 
-        // Buat 3 seller frame
-        for (int i = 0; i < 3; i++) {
-            sellerFrames[i] = new SellerFrame(controller, i);
+        // Buat seller frame awal
+        for (int i = 0; i < INITIAL_SELLERS; i++) {
+            sellerFrames.add(new SellerFrame(this, controller, controller.allocateSellerIndex()));
         }
+
+        // Katalog demo: pesan hanya sampai ke seller yang menjual produknya
+        controller.setSellerCatalog(sellerFrames.get(0).sellerIndex, Arrays.asList("Nasi Padang", "Ayam Pop", "Rendang", "Gulai Cincang", "Sambal Ijo"));
+        controller.setSellerCatalog(sellerFrames.get(1).sellerIndex, Arrays.asList("Es Teh Manis", "Es Jeruk", "Jus Alpukat", "Es Campur", "Kolak Pisang"));
+        // Seller 3 tanpa katalog: menerima semua pesan
     }
 
     /** Tampilkan semua jendela — posisi bebas, sedikit offset agar tidak tumpuk persis */
     public void showAll() {
-        int frameW = 520;
-        int frameH = 700;
-
         // Buyer di posisi default tengah-kiri, tiap jendela offset 30px
-        buyerFrame.setSize(frameW, frameH);
+        buyerFrame.setSize(FRAME_W, FRAME_H);
         buyerFrame.setLocationRelativeTo(null); // tengah layar
         buyerFrame.setVisible(true);
 
-        // Seller 1, 2, 3 offset ke kanan-bawah dari buyer
-        Point base = buyerFrame.getLocation();
-        for (int i = 0; i < 3; i++) {
-            int offset = (i + 1) * 30;
-            sellerFrames[i].setSize(frameW, frameH);
-            sellerFrames[i].setLocation(base.x + offset, base.y + offset);
-            sellerFrames[i].setVisible(true);
+        // Seller offset ke kanan-bawah dari buyer
+        for (int i = 0; i < sellerFrames.size(); i++) {
+            showSellerFrame(sellerFrames.get(i), i);
         }
     }
 
+    /** Seller baru bergabung saat aplikasi berjalan (menu buyer "Add Seller") */
+    void addSeller() {
+        SellerFrame frame = new SellerFrame(this, controller, controller.allocateSellerIndex());
+        sellerFrames.add(frame);
+        showSellerFrame(frame, sellerFrames.size() - 1);
+    }
+
+    /** Jendela seller ditutup: seller keluar dari controller */
+    void removeSeller(SellerFrame frame) {
+        controller.removeSellerPanel(frame.sellerIndex);
+        sellerFrames.remove(frame);
+        frame.dispose();
+    }
+
+    private void showSellerFrame(SellerFrame frame, int position) {
+        Point base = buyerFrame.getLocation();
+        int offset = ((position % 10) + 1) * 30;
+        frame.setSize(FRAME_W, FRAME_H);
+        frame.setLocation(base.x + offset, base.y + offset);
+        frame.setVisible(true);
+    }
+
     // ══════════════════════════════════════════════════════════
     //  BuyerFrame
     // ══════════════════════════════════════════════════════════
     static class BuyerFrame extends JFrame {
-        BuyerFrame(ChatController controller) {
+        BuyerFrame(ChatApplication app, ChatController controller) {
             setTitle("\uD83D\uDECD Buyer");
             setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
@@ -69,10 +98,12 @@ public class ChatApplication {
             JMenuBar mb = new JMenuBar();
             JMenu fm = new JMenu("File");
             JMenuItem clearItem = new JMenuItem("Clear All Chats");
-            clearItem.addActionListener(e -> controller.clearAllChats());
+            clearItem.addActionListener(e -> controller.clearSession(ChatController.LOCAL_SESSION_ID));
+            JMenuItem addSellerItem = new JMenuItem("Add Seller");
+            addSellerItem.addActionListener(e -> app.addSeller());
             JMenuItem exitItem = new JMenuItem("Exit");
             exitItem.addActionListener(e -> System.exit(0));
-            fm.add(clearItem); fm.addSeparator(); fm.add(exitItem);
+            fm.add(clearItem); fm.add(addSellerItem); fm.addSeparator(); fm.add(exitItem);
             mb.add(fm);
             setJMenuBar(mb);
         }
@@ -82,9 +113,18 @@ public class ChatApplication {
     //  SellerFrame
     // ══════════════════════════════════════════════════════════
     static class SellerFrame extends JFrame {
-        SellerFrame(ChatController controller, int sellerIndex) {
-            setTitle("\uD83D\uDC68\u200D\uD83C\uDF73 Seller " + (sellerIndex + 1));
+        final int sellerIndex;
+
+        SellerFrame(ChatApplication app, ChatController controller, int sellerIndex) {
+            this.sellerIndex = sellerIndex;
+            setTitle(SellerPanel.iconFor(sellerIndex) + " Seller " + (sellerIndex + 1));
             setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE); // jangan exit semua kalau seller ditutup
+            addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosing(WindowEvent e) {
+                    app.removeSeller(SellerFrame.this); // seller keluar, buyer & seller lain tetap jalan
+                }
+            });
 
             SellerPanel sellerPanel = new SellerPanel(sellerIndex);
             controller.addSellerPanel(sellerPanel);
@@ -97,6 +137,12 @@ public class ChatApplication {
             clearItem.addActionListener(e -> sellerPanel.clearAllRequests());
             fm.add(clearItem);
             mb.add(fm);
+
+            JMenu am = new JMenu("AI");
+            JMenuItem fillAllItem = new JMenuItem("AI Fill All");
+            fillAllItem.addActionListener(e -> controller.onAIFillAllRequested(sellerIndex));
+            am.add(fillAllItem);
+            mb.add(am);
             setJMenuBar(mb);
         }
     }
@@ -118,7 +164,7 @@ public class ChatApplication {
             System.out.println("==============================================");
             System.out.println("Food Chat System - Multi Window");
             System.out.println("  Buyer Frame    : 1");
-            System.out.println("  Seller Frames  : 3");
+            System.out.println("  Seller Frames  : " + INITIAL_SELLERS + " (File > Add Seller untuk menambah)");
             System.out.println("  Controller     : 1 shared ChatController");
             System.out.println("==============================================");
         });
@@ -0,0 +1,30 @@
+package main;
+
+import gateway.ChatGateway;
+import java.net.InetAddress;
+
+/**
+ * GatewayServer - Engine headless + HTTP gateway untuk tablet di LAN
+ *
+ * Tanpa jendela Swing: buyer dan seller masuk lewat ChatGateway.
+ * Pemakaian: java main.GatewayServer [port] [host]   (default 8080, 127.0.0.1)
+ * Untuk tablet di LAN: java main.GatewayServer 8080 0.0.0.0
+ */
+public class GatewayServer {
+
+    private static final int DEFAULT_PORT = 8080;
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        InetAddress host = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+
+        HeadlessEngine engine  = new HeadlessEngine(0); // seller bergabung lewat /seller/join
+        ChatGateway    gateway = new ChatGateway(engine.getController(), engine::execute, host, port);
+        gateway.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            gateway.stop();
+            engine.shutdown();
+        }, "gateway-shutdown"));
+    }
+}
@@ -0,0 +1,255 @@
+package main;
+
+import controller.BuyerView;
+import controller.ChatController;
+import controller.SellerView;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import model.ChatRequest;
+import model.Money;
+
+/**
+ * HeadlessEngine - ChatController + SellerAIService tanpa Swing
+ *
+ * Satu thread "chat-engine" memegang peran EDT: semua panggilan ke
+ * controller dan semua callback view jalan di sana (lewat execute / call).
+ * Buyer dan seller diwakili listener headless, jadi engine bisa dipakai
+ * untuk server dan load test tanpa display; tidak ada kelas AWT yang
+ * di-load (cek dengan {@code java -verbose:class main.HeadlessEngine | grep java.awt}).
+ *
+ * main() mengukur waktu startup dan heap engine, lalu menjalankan skenario
+ * broadcast -> AI suggest -> submit -> choose untuk N pesan.
+ */
+public class HeadlessEngine {
+
+    private final ExecutorService engineThread;
+    private final ChatController  controller;
+    private final HeadlessBuyer   buyer  = new HeadlessBuyer();
+    private final List<HeadlessSeller> sellers = new ArrayList<>();
+
+    // Form yang diminta ke AI vs yang sudah selesai (berhasil / gagal), semua seller
+    private final AtomicLong formsRequested = new AtomicLong();
+    private final AtomicLong formsCompleted = new AtomicLong();
+
+    public HeadlessEngine(int sellerCount) {
+        this.engineThread = Executors.newSingleThreadExecutor(r -> new Thread(r, "chat-engine"));
+        this.controller   = new ChatController(engineThread);
+        controller.setBuyerPanel(buyer);
+        for (int i = 0; i < sellerCount; i++) {
+            HeadlessSeller s = new HeadlessSeller(controller.allocateSellerIndex());
+            controller.addSellerPanel(s);
+            sellers.add(s);
+        }
+    }
+
+    public ChatController getController() { return controller; }
+    public HeadlessBuyer  getBuyer()      { return buyer; }
+    public List<HeadlessSeller> getSellers() { return sellers; }
+
+    /** Jalankan di thread engine (tidak menunggu) */
+    public void execute(Runnable task) {
+        engineThread.execute(task);
+    }
+
+    /** Jalankan di thread engine dan tunggu hasilnya */
+    public <T> T call(Callable<T> task) throws InterruptedException, ExecutionException {
+        return engineThread.submit(task).get();
+    }
+
+    /**
+     * Tunggu sampai semua AI suggestion yang diminta seller otomatis selesai
+     * dan event bus kosong.
+     *
+     * @return false kalau timeout
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException, ExecutionException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (formsCompleted.get() < formsRequested.get() || call(controller::getPendingEventCount) > 0) {
+            if (System.currentTimeMillis() > deadline) return false;
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        return true;
+    }
+
+    public void shutdown() {
+        controller.shutdown();
+        engineThread.shutdown();
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Listener headless
+    // ──────────────────────────────────────────────────────────
+
+    /** Buyer lokal: hanya menghitung event dan menyimpan ringkasan terakhir */
+    public static class HeadlessBuyer implements BuyerView {
+        private String address = "";
+        private final Map<Long, String> cartLines = new LinkedHashMap<>();
+        private Money  cartTotal;
+        private long   messages, waiting, replies;
+
+        public void setAddress(String address) { this.address = address == null ? "" : address.trim(); }
+        public int    getCartLineCount() { return cartLines.size(); }
+        public Money  getCartTotal()     { return cartTotal; }
+        public long   getReplyCount()    { return replies; }
+
+        @Override public void   setController(ChatController controller) { }
+        @Override public String getAddress() { return address; }
+        @Override public void   displayBuyerMessage(String message) { messages++; }
+        @Override public void   displayWaitingMessage(String requestLabel, int requestId, int formIndex) { waiting++; }
+        @Override public void   replaceSpecificWaitingBubble(int requestId, int formIndex, String response) { replies++; }
+        @Override
+        public void updateCartLine(int requestId, int formIndex, String lineText, Money grandTotal) {
+            cartLines.put(((long) requestId << 32) | formIndex, lineText);
+            cartTotal = grandTotal;
+        }
+
+        @Override
+        public void clearChat() {
+            messages = waiting = replies = 0;
+            cartLines.clear();
+            cartTotal = null;
+        }
+    }
+
+    /**
+     * Seller otomatis: setiap request yang masuk langsung dimintakan AI
+     * suggestion untuk semua form, dan suggestion yang jadi langsung di-submit.
+     */
+    public class HeadlessSeller implements SellerView {
+        private final int    sellerIndex;
+        private final String sellerName;
+        private ChatController controller;
+        private final Map<Integer, String[]> forms = new HashMap<>(); // requestId -> isi form 1..3
+
+        HeadlessSeller(int sellerIndex) {
+            this.sellerIndex = sellerIndex;
+            this.sellerName  = "Seller " + (sellerIndex + 1);
+        }
+
+        @Override public void   setController(ChatController controller) { this.controller = controller; }
+        @Override public int    getSellerIndex() { return sellerIndex; }
+        @Override public String getSellerName()  { return sellerName; }
+
+        @Override
+        public void addRequest(ChatRequest request, boolean layoutNow) {
+            int id = request.getRequestId();
+            forms.put(id, new String[3]);
+            for (int fi = 1; fi <= 3; fi++) {
+                formsRequested.incrementAndGet();
+                controller.onAISuggestRequested(id, fi, sellerIndex);
+            }
+        }
+
+        @Override public void refreshLayout() { }
+
+        @Override
+        public boolean hasRequest(int requestId) {
+            return forms.containsKey(requestId);
+        }
+
+        @Override
+        public void fillFormField(int requestId, int formIndex, String value) {
+            String[] f = forms.get(requestId);
+            if (f == null) return;
+            f[formIndex - 1] = value;
+            controller.onSellerFormSubmit(requestId, formIndex, value, sellerIndex);
+        }
+
+        @Override
+        public void setFormBusy(int requestId, int formIndex, boolean busy) {
+            if (!busy) formsCompleted.incrementAndGet();
+        }
+
+        @Override public void removeRequest(int requestId) { forms.remove(requestId); }
+        @Override public void clearAllRequests() { forms.clear(); }
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Main: ukur startup + skenario load
+    // ──────────────────────────────────────────────────────────
+    private static final String[] SAMPLE_MESSAGES = {
+        "Mau pesan 2 rendang",
+        "Ada es jeruk dingin?",
+        "Berapa harga nasi padang 3 porsi",
+        "Stok ayam pop masih ada?",
+        "Halo, rekomendasi menu yang manis dong",
+        "Jus alpukat 1 sama gulai cincang 2"
+    };
+    private static final int BUYER_SESSIONS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int messageCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = rt.totalMemory() - rt.freeMemory();
+        long t0 = System.nanoTime();
+
+        HeadlessEngine engine = new HeadlessEngine(3);
+        ChatController controller = engine.getController();
+        List<HeadlessSeller> sellers = engine.getSellers();
+        engine.call(() -> {
+            controller.setSellerCatalog(sellers.get(0).getSellerIndex(), Arrays.asList("Nasi Padang", "Ayam Pop", "Rendang", "Gulai Cincang", "Sambal Ijo"));
+            controller.setSellerCatalog(sellers.get(1).getSellerIndex(), Arrays.asList("Es Teh Manis", "Es Jeruk", "Jus Alpukat", "Es Campur", "Kolak Pisang"));
+            return null;
+        });
+
+        long startupMillis = (System.nanoTime() - t0) / 1_000_000;
+        System.gc();
+        long heapAfter = rt.totalMemory() - rt.freeMemory();
+        System.out.println("[HeadlessEngine] Startup " + startupMillis + " ms, heap engine ~"
+                + ((heapAfter - heapBefore) >> 10) + " KB (total terpakai " + (heapAfter >> 10) + " KB)");
+
+        // Skenario: N pesan dari beberapa sesi buyer, seller otomatis menjawab via AI
+        long t1 = System.nanoTime();
+        List<Integer> requestIds = engine.call(() -> {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < messageCount; i++) {
+                String session = i % BUYER_SESSIONS == 0 ? ChatController.LOCAL_SESSION_ID : "buyer-" + (i % BUYER_SESSIONS);
+                ids.add(controller.onBuyerMessageSent(session, SAMPLE_MESSAGES[i % SAMPLE_MESSAGES.length]));
+            }
+            return ids;
+        });
+
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (engine.formsCompleted.get() < engine.formsRequested.get() || engine.formsRequested.get() == 0) {
+            if (System.currentTimeMillis() > deadline) {
+                System.err.println("[HeadlessEngine] Timeout menunggu AI suggestion");
+                break;
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+
+        engine.call(() -> {
+            for (int i = 0; i < requestIds.size(); i++) {
+                String session = i % BUYER_SESSIONS == 0 ? ChatController.LOCAL_SESSION_ID : "buyer-" + (i % BUYER_SESSIONS);
+                controller.onBuyerChoose(session, requestIds.get(i), 2, SAMPLE_MESSAGES[i % SAMPLE_MESSAGES.length],
+                        1 + i % 3, Money.of(15_000));
+            }
+            return null;
+        });
+        // Tunggu event bus selesai di-drain (batch besar dilanjutkan di hop berikutnya)
+        while (engine.call(controller::getPendingEventCount) > 0) { }
+
+        long flowMillis = (System.nanoTime() - t1) / 1_000_000;
+        System.gc();
+        long heapEnd = rt.totalMemory() - rt.freeMemory();
+        System.out.println("[HeadlessEngine] " + messageCount + " pesan, " + engine.formsCompleted.get()
+                + " form dijawab, " + engine.getBuyer().getReplyCount() + " balasan di buyer lokal dalam "
+                + flowMillis + " ms; keranjang lokal " + engine.getBuyer().getCartLineCount() + " baris, total "
+                + engine.getBuyer().getCartTotal() + "; " + controller.getSessionCount() + " sesi, heap " + (heapEnd >> 10) + " KB");
+        System.out.print(controller.getLatencyMetrics().toText());
+
+        engine.shutdown();
+    }
+}
@@ -0,0 +1,57 @@
+package model;
+
+/**
+ * ArchivedRequest - Bentuk ringkas ChatRequest yang sudah selesai dijawab
+ *
+ * Immutable, tanpa Date dan tanpa referensi ke UI, supaya request lama bisa
+ * disimpan murah setelah dikeluarkan dari daftar aktif. Waktu disimpan
+ * sebagai epoch millis.
+ */
+public final class ArchivedRequest {
+
+    private final int    requestId;
+    private final String buyerMessage;
+    private final String productExplanation;
+    private final String priceEstimation;
+    private final String stockAvailability;
+    private final long   timestampMillis;
+    private final long   archivedAtMillis;
+
+    public ArchivedRequest(int requestId, String buyerMessage, String productExplanation,
+                           String priceEstimation, String stockAvailability,
+                           long timestampMillis, long archivedAtMillis) {
+        this.requestId          = requestId;
+        this.buyerMessage       = buyerMessage;
+        this.productExplanation = productExplanation;
+        this.priceEstimation    = priceEstimation;
+        this.stockAvailability  = stockAvailability;
+        this.timestampMillis    = timestampMillis;
+        this.archivedAtMillis   = archivedAtMillis;
+    }
+
+    public static ArchivedRequest of(ChatRequest r, long archivedAtMillis) {
+        return new ArchivedRequest(r.getRequestId(), r.getBuyerMessage(), r.getProductExplanation(),
+                r.getPriceEstimation(), r.getStockAvailability(),
+                r.getTimestamp().getTime(), archivedAtMillis);
+    }
+
+    public int    getRequestId()          { return requestId; }
+    public String getRequestLabel()       { return "REQ-" + requestId; }
+    public String getBuyerMessage()       { return buyerMessage; }
+    public String getProductExplanation() { return productExplanation; }
+    public String getPriceEstimation()    { return priceEstimation; }
+    public String getStockAvailability()  { return stockAvailability; }
+    public long   getTimestampMillis()    { return timestampMillis; }
+    public long   getArchivedAtMillis()   { return archivedAtMillis; }
+
+    /** Perkiraan byte yang ditahan arsip ini (objek + teks), cara hitung sama dengan ChatRequest */
+    public long estimateRetainedBytes() {
+        return 48 + stringBytes(buyerMessage) + stringBytes(productExplanation)
+                + stringBytes(priceEstimation) + stringBytes(stockAvailability);
+    }
+
+    /** String + char[]-nya, dibulatkan ke kelipatan 8 byte */
+    static long stringBytes(String s) {
+        return s == null ? 0 : 24 + ((16 + 2L * s.length() + 7) & ~7L);
+    }
+}
@@ -1,5 +1,6 @@
 package model;
 
+import java.util.BitSet;
 import java.util.Date;
 
 /**
@@ -19,18 +20,27 @@ public class ChatRequest {
 
     private int requestId;
     private String requestLabel; // e.g., "REQ-1", "REQ-2"
+    private String sessionId;    // sesi buyer pemilik request
     private String buyerMessage;
     private String productExplanation;
     private String priceEstimation;
     private String stockAvailability;
     private Date timestamp;
     private Status status;
+    private long createdNanos;       // System.nanoTime() saat dibuat, untuk metrik latensi
+    private BitSet repliedSellers;   // seller yang sudah submit minimal satu form
 
     public ChatRequest(int requestId, String buyerMessage) {
+        this(requestId, null, buyerMessage);
+    }
+
+    public ChatRequest(int requestId, String sessionId, String buyerMessage) {
         this.requestId = requestId;
         this.requestLabel = "REQ-" + requestId;
+        this.sessionId = sessionId;
         this.buyerMessage = buyerMessage;
         this.timestamp = new Date();
+        this.createdNanos = System.nanoTime();
         this.status = Status.PENDING;
     }
 
@@ -51,6 +61,14 @@ public class ChatRequest {
         this.requestLabel = requestLabel;
     }
 
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
     public String getBuyerMessage() {
         return buyerMessage;
     }
@@ -99,6 +117,18 @@ public class ChatRequest {
         this.status = status;
     }
 
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    /** @return true jika ini balasan pertama dari seller tersebut untuk request ini */
+    public boolean markRepliedBy(int sellerIndex) {
+        if (repliedSellers == null) repliedSellers = new BitSet();
+        if (repliedSellers.get(sellerIndex)) return false;
+        repliedSellers.set(sellerIndex);
+        return true;
+    }
+
     public boolean hasSellerResponse() {
         return productExplanation != null || priceEstimation != null || stockAvailability != null;
     }
@@ -106,4 +136,17 @@ public class ChatRequest {
     public boolean isFullyResponded() {
         return productExplanation != null && priceEstimation != null && stockAvailability != null;
     }
+
+    /**
+     * Perkiraan byte yang ditahan request ini selama aktif (JVM 64-bit, compressed oops):
+     * objek ini + label + Date + BitSet + teks. sessionId tidak dihitung (dipakai bersama sesi).
+     * Pembanding {@link ArchivedRequest#estimateRetainedBytes()}.
+     */
+    public long estimateRetainedBytes() {
+        long bytes = 56 + 24;                                     // ChatRequest + Date
+        if (repliedSellers != null) bytes += 24 + 16 + 8L * ((repliedSellers.length() + 63) >> 6);
+        return bytes + ArchivedRequest.stringBytes(requestLabel) + ArchivedRequest.stringBytes(buyerMessage)
+                + ArchivedRequest.stringBytes(productExplanation) + ArchivedRequest.stringBytes(priceEstimation)
+                + ArchivedRequest.stringBytes(stockAvailability);
+    }
 }
@@ -0,0 +1,138 @@
+package model;
+
+/**
+ * Money - Nilai uang fixed-point (long, satuan minor = 1/100)
+ *
+ * Semua hitungan harga/diskon memakai long supaya hasilnya pasti,
+ * tanpa pembulatan double. Formatter menulis langsung ke StringBuilder
+ * milik pemanggil, jadi tidak ada String perantara.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int   MINOR_PER_UNIT = 100;
+    public static final Money ZERO = new Money(0);
+
+    private final long minor;
+
+    private Money(long minor) {
+        this.minor = minor;
+    }
+
+    /** Dari satuan utuh, mis. {@code Money.of(25000)} = Rp 25.000 */
+    public static Money of(long units) {
+        return ofMinor(Math.multiplyExact(units, MINOR_PER_UNIT));
+    }
+
+    public static Money ofMinor(long minor) {
+        return minor == 0 ? ZERO : new Money(minor);
+    }
+
+    public long getMinorUnits() {
+        return minor;
+    }
+
+    public boolean isPositive() {
+        return minor > 0;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minor, other.minor));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minor, other.minor));
+    }
+
+    public Money times(int factor) {
+        return ofMinor(Math.multiplyExact(minor, (long) factor));
+    }
+
+    /** {@code percent}% dari nilai ini, dibulatkan half-up ke satuan minor */
+    public Money percent(int percent) {
+        return ofMinor(divideHalfUp(Math.multiplyExact(minor, (long) percent), 100));
+    }
+
+    /** Dibagi rata, dibulatkan half-up ke satuan minor */
+    public Money dividedBy(int divisor) {
+        return ofMinor(divideHalfUp(minor, divisor));
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Formatter
+    // ──────────────────────────────────────────────────────────
+
+    /** "Rp 15.000" (dibulatkan ke rupiah utuh) */
+    public StringBuilder appendRupiah(StringBuilder sb) {
+        return appendRupiah(sb, '.');
+    }
+
+    /** "Rp 15.000" atau "Rp 15,000" sesuai pemisah ribuan */
+    public StringBuilder appendRupiah(StringBuilder sb, char groupSeparator) {
+        long units = divideHalfUp(minor, MINOR_PER_UNIT);
+        sb.append("Rp ");
+        if (units < 0) {
+            sb.append('-');
+            units = -units;
+        }
+        return appendGrouped(sb, units, groupSeparator);
+    }
+
+    /** "$5.00" */
+    public StringBuilder appendDollars(StringBuilder sb) {
+        long abs = Math.abs(minor);
+        if (minor < 0) sb.append('-');
+        sb.append('$').append(abs / MINOR_PER_UNIT).append('.');
+        long cents = abs % MINOR_PER_UNIT;
+        if (cents < 10) sb.append('0');
+        return sb.append(cents);
+    }
+
+    public String toRupiahString() {
+        return appendRupiah(new StringBuilder(16)).toString();
+    }
+
+    /** Tulis angka non-negatif dengan pemisah tiap 3 digit, tanpa String perantara */
+    private static StringBuilder appendGrouped(StringBuilder sb, long value, char separator) {
+        long divisor = 1;
+        int  digits  = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+            digits++;
+        }
+        for (; divisor > 0; divisor /= 10, digits--) {
+            sb.append((char) ('0' + (value / divisor) % 10));
+            if (digits > 1 && (digits - 1) % 3 == 0) sb.append(separator);
+        }
+        return sb;
+    }
+
+    private static long divideHalfUp(long value, long divisor) {
+        long q = value / divisor;
+        long r = value % divisor;
+        if (Math.abs(r) * 2 >= Math.abs(divisor)) q += (value < 0) == (divisor < 0) ? 1 : -1;
+        return q;
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Value semantics
+    // ──────────────────────────────────────────────────────────
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minor, other.minor);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).minor == minor;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minor);
+    }
+
+    @Override
+    public String toString() {
+        return toRupiahString();
+    }
+}
@@ -1,37 +1,97 @@
 package model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Product Model - Represents an item in the catalog
+ *
+ * Stock dikelola secara lock-free (CAS) supaya banyak seller yang
+ * konfirmasi bersamaan tidak pernah oversell:
+ *   reserve  -> stok tersedia dikurangi, dicatat sebagai reserved
+ *   commit   -> reservasi menjadi penjualan final
+ *   release  -> reservasi dibatalkan, stok dikembalikan
  */
 public class Product {
     private String name;
-    private double price;
-    private int stock;
+    private Money  price;
+    private final AtomicInteger stock    = new AtomicInteger(); // tersedia untuk dipesan
+    private final AtomicInteger reserved = new AtomicInteger(); // sedang ditahan pesanan
 
-    public Product(String name, double price, int stock) {
+    public Product(String name, Money price, int stock) {
         this.name = name;
         this.price = price;
-        this.stock = stock;
+        this.stock.set(stock);
     }
 
     public String getName() {
         return name;
     }
 
-    public double getPrice() {
+    public Money getPrice() {
         return price;
     }
 
+    /** Stok yang masih bisa dipesan (tidak termasuk yang sedang di-reserve) */
     public int getStock() {
-        return stock;
+        return stock.get();
+    }
+
+    public int getReserved() {
+        return reserved.get();
     }
 
     public void setStock(int stock) {
-        this.stock = stock;
+        this.stock.set(stock);
+    }
+
+    /**
+     * Tahan {@code quantity} dari stok tersedia.
+     *
+     * @return false jika stok tidak cukup (stok tidak berubah)
+     */
+    public boolean reserve(int quantity) {
+        if (quantity <= 0) return false;
+        while (true) {
+            int current = stock.get();
+            if (quantity > current) return false;
+            if (stock.compareAndSet(current, current - quantity)) {
+                reserved.addAndGet(quantity);
+                return true;
+            }
+        }
+    }
+
+    /** Jadikan reservasi sebagai penjualan final. */
+    public void commit(int quantity) {
+        takeReserved(quantity);
+    }
+
+    /** Batalkan reservasi dan kembalikan ke stok tersedia. */
+    public void release(int quantity) {
+        takeReserved(quantity);
+        stock.addAndGet(quantity);
+    }
+
+    /**
+     * Kurangi stok secara atomik (reserve + commit sekaligus).
+     *
+     * @return false jika stok tidak cukup
+     */
+    public boolean deductStock(int quantity) {
+        if (!reserve(quantity)) return false;
+        commit(quantity);
+        return true;
     }
 
-    public void deductStock(int quantity) {
-        if (quantity <= stock) {
-            this.stock -= quantity;
+    private void takeReserved(int quantity) {
+        if (quantity <= 0) return;
+        while (true) {
+            int current = reserved.get();
+            if (quantity > current) {
+                throw new IllegalStateException("Reservasi " + name + " tidak cukup: "
+                        + current + " < " + quantity);
+            }
+            if (reserved.compareAndSet(current, current - quantity)) return;
         }
     }
 }
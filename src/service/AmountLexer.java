@@ -0,0 +1,214 @@
+package service;
+
+/**
+ * AmountLexer - Lexer quantity & harga tanpa regex dan tanpa alokasi
+ *
+ * Dipakai oleh SellerAIService (quantity dari pesan buyer) dan Bubble
+ * (harga dari pesan seller). Format yang dikenali sama dengan regex lama:
+ *
+ *   quantity : angka pertama                      "2 rendang"  -> 2
+ *   harga    : "Rp 15.000", "rp.15,000", "Rp15000" -> 15000
+ *              "15k", "1,5 rb", "20 ribu"           -> 15000, 1500, 20000
+ *              "$5.00", "$ 1,250.5"                 -> 5.00, 1250.50
+ *
+ * Prioritas harga tetap Rp -> k/rb/ribu -> $, masing-masing kemunculan
+ * pertama, dan semuanya dikumpulkan dalam satu scan. Harga dikembalikan
+ * dalam satuan minor Money (1/100) supaya pasti; angka di atas
+ * {@link #MAX_MANTISSA} dianggap bukan harga.
+ */
+public final class AmountLexer {
+
+    /** Batas digit yang dibaca untuk harga (15 digit signifikan) */
+    static final long MAX_MANTISSA = 999_999_999_999_999L;
+
+    private static final long[] POW10 = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+        1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+        10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+        10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private AmountLexer() {
+    }
+
+    /**
+     * Angka pertama di pesan.
+     *
+     * @return nilainya, atau {@code defaultValue} jika tidak ada / terlalu besar
+     */
+    public static int parseQuantity(CharSequence s, int defaultValue) {
+        if (s == null) return defaultValue;
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            if (!isDigit(s.charAt(i))) continue;
+            long value = 0;
+            for (; i < n && isDigit(s.charAt(i)); i++) {
+                value = value * 10 + (s.charAt(i) - '0');
+                if (value > Integer.MAX_VALUE) return defaultValue;
+            }
+            return (int) value;
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Harga pertama yang disebut di pesan.
+     *
+     * @return harga dalam satuan minor Money (Rp 15.000 -> 1.500.000), atau 0 jika tidak ada
+     */
+    public static long parsePriceMinor(CharSequence s) {
+        if (s == null) return 0;
+        int n = s.length();
+
+        boolean rpFound = false, kFound = false, dollarFound = false;
+        long    rpValue = -1,    kValue = -1,    dollarValue = -1;  // -1 = cocok tapi tanpa angka valid
+
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+
+            // "rp" \.? \s* [\d.,]+   -> semua digit di dalamnya
+            if (!rpFound && (c == 'r' || c == 'R') && i + 1 < n && (s.charAt(i + 1) == 'p' || s.charAt(i + 1) == 'P')) {
+                int j = i + 2;
+                if (j < n && s.charAt(j) == '.') {
+                    int start = skipSpaces(s, j + 1);
+                    int end   = skipRupiahRun(s, start);
+                    rpFound = true;  // tanpa angka setelah titik, regex lama tetap match "."
+                    rpValue = end > start ? digitsValue(s, start, end) : -1;
+                } else {
+                    int start = skipSpaces(s, j);
+                    int end   = skipRupiahRun(s, start);
+                    if (end > start) {
+                        rpFound = true;
+                        rpValue = digitsValue(s, start, end);
+                    }
+                }
+                if (rpFound && rpValue >= 0) return rpValue; // prioritas tertinggi
+            }
+
+            // \d+ ([.,]\d+)? \s* (k|rb|ribu)   -> dikali 1000
+            if (!kFound && isDigit(c) && (i == 0 || !isDigit(s.charAt(i - 1)))) {
+                int intEnd = skipDigits(s, i);
+                int end    = intEnd;
+                if (intEnd + 1 < n && (s.charAt(intEnd) == '.' || s.charAt(intEnd) == ',')
+                        && isDigit(s.charAt(intEnd + 1))) {
+                    end = skipDigits(s, intEnd + 1);
+                }
+                if (isThousandSuffix(s, skipSpaces(s, end))) {
+                    kFound = true;
+                    kValue = scaledValue(s, i, intEnd, end, 5); // x1000 rupiah x100 minor
+                }
+            }
+
+            // "$" \s* [\d,]+ \.? \d*   -> koma diabaikan
+            if (!dollarFound && c == '$') {
+                int start = skipSpaces(s, i + 1);
+                int end   = start;
+                while (end < n && (isDigit(s.charAt(end)) || s.charAt(end) == ',')) end++;
+                if (end > start) {
+                    dollarFound = true;
+                    dollarValue = dollarValue(s, start, end);
+                }
+            }
+        }
+
+        if (kFound && kValue >= 0) return kValue;
+        if (!kFound && dollarFound && dollarValue >= 0) return dollarValue;
+        return 0;
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Helpers
+    // ──────────────────────────────────────────────────────────
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /** Sama dengan \s di regex Java */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static int skipSpaces(CharSequence s, int i) {
+        while (i < s.length() && isSpace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static int skipDigits(CharSequence s, int i) {
+        while (i < s.length() && isDigit(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static int skipRupiahRun(CharSequence s, int i) {
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            if (!isDigit(c) && c != '.' && c != ',') break;
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isThousandSuffix(CharSequence s, int i) {
+        int n = s.length();
+        if (i >= n) return false;
+        char c = Character.toLowerCase(s.charAt(i));
+        if (c == 'k') return true;
+        if (c != 'r' || i + 1 >= n) return false;
+        char c1 = Character.toLowerCase(s.charAt(i + 1));
+        if (c1 == 'b') return true;
+        return c1 == 'i' && i + 3 < n
+                && Character.toLowerCase(s.charAt(i + 2)) == 'b'
+                && Character.toLowerCase(s.charAt(i + 3)) == 'u';
+    }
+
+    /** Semua digit di [start, end) (pemisah . dan , dilewati) x100; -1 jika tidak ada digit */
+    private static long digitsValue(CharSequence s, int start, int end) {
+        long value = 0;
+        boolean any = false;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) continue;
+            value = value * 10 + (c - '0');
+            if (value > MAX_MANTISSA) return -1;
+            any = true;
+        }
+        return any ? value * 100 : -1;
+    }
+
+    /**
+     * Angka desimal: digit [start, intEnd) + pecahan setelah pemisah di intEnd,
+     * dikali 10^exp lalu dibulatkan half-up.
+     */
+    private static long scaledValue(CharSequence s, int start, int intEnd, int end, int exp) {
+        long mantissa = 0;
+        int  fractionDigits = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) continue;
+            mantissa = mantissa * 10 + (c - '0');
+            if (mantissa > MAX_MANTISSA) return -1;
+            if (i > intEnd) fractionDigits++;
+        }
+        int shift = exp - fractionDigits;
+        if (shift >= 0) return mantissa > Long.MAX_VALUE / POW10[shift] ? -1 : mantissa * POW10[shift];
+        if (-shift >= POW10.length) return 0;
+        long divisor = POW10[-shift];
+        return (mantissa + divisor / 2) / divisor;
+    }
+
+    /** Bagian dolar: [\d,]+ di [start, end), lalu opsional "." dan digit; x100 */
+    private static long dollarValue(CharSequence s, int start, int end) {
+        int n = s.length();
+        if (end < n && s.charAt(end) == '.') {
+            int fracEnd = skipDigits(s, end + 1);
+            return hasDigit(s, start, fracEnd) ? scaledValue(s, start, end, fracEnd, 2) : -1;
+        }
+        return hasDigit(s, start, end) ? scaledValue(s, start, end, end, 2) : -1;
+    }
+
+    private static boolean hasDigit(CharSequence s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (isDigit(s.charAt(i))) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package service;
+
+/**
+ * BuyerIntent - Intent buyer sebagai bitmask int
+ *
+ * Setiap sinyal (pedas, manis, budget, ...) adalah satu bit, jadi hasil
+ * analisis pesan cukup satu int tanpa alokasi object. Semua kombinasi
+ * (2^COUNT) cukup kecil untuk dijadikan index tabel yang dihitung sekali.
+ */
+final class BuyerIntent {
+
+    // Taste preferences
+    static final int SPICY      = 1;
+    static final int SWEET      = 1 << 1;
+    static final int MILD       = 1 << 2;
+    // Meal type
+    static final int HEAVY_MEAL = 1 << 3;
+    static final int LIGHT      = 1 << 4;
+    // Mood/occasion
+    static final int HUNGRY     = 1 << 5;
+    static final int REFRESHING = 1 << 6;
+    // Budget sensitivity
+    static final int BUDGET     = 1 << 7;
+    static final int PREMIUM    = 1 << 8;
+
+    static final int COUNT = 9;
+    static final int COMBINATIONS = 1 << COUNT;
+
+    /** Nama flag seperti ditulis di file konfigurasi (urutan = urutan bit) */
+    private static final String[] NAMES = {
+        "spicy", "sweet", "mild", "heavy_meal", "light", "hungry", "refreshing", "budget", "premium"
+    };
+
+    /** Preferensi rasa per mask: yang terakhir dideteksi menang (mild > sweet > spicy) */
+    private static final String[] PREFERENCES = new String[COMBINATIONS];
+
+    static {
+        for (int mask = 0; mask < COMBINATIONS; mask++) {
+            if (has(mask, MILD))       PREFERENCES[mask] = "mild";
+            else if (has(mask, SWEET)) PREFERENCES[mask] = "sweet";
+            else if (has(mask, SPICY)) PREFERENCES[mask] = "spicy";
+            else                       PREFERENCES[mask] = "general";
+        }
+    }
+
+    private BuyerIntent() {
+    }
+
+    /** true jika semua bit di {@code flags} ada di {@code intent} */
+    static boolean has(int intent, int flags) {
+        return (intent & flags) == flags;
+    }
+
+    /** @return bit untuk nama flag (case-insensitive), atau 0 jika tidak dikenal */
+    static int flagOf(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equalsIgnoreCase(name)) return 1 << i;
+        }
+        return 0;
+    }
+
+    static String preferenceOf(int intent) {
+        return PREFERENCES[intent & (COMBINATIONS - 1)];
+    }
+}
@@ -0,0 +1,368 @@
+package service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * EventLog - Log terstruktur asinkron: ring buffer + writer FileChannel
+ *
+ * Producer (EDT, thread engine, evictor, ...) hanya mengklaim slot di ring
+ * yang dialokasikan sekali di awal dan mengisi field bertipe (nama konstanta
+ * + long / referensi). Tidak ada format string atau I/O di thread pemanggil:
+ * thread daemon "event-log-writer" yang memformat dan menulis ke file lewat
+ * FileChannel, berganti file saat ukurannya melewati batas.
+ *
+ *   log.info("broadcast").field("req", id).field("sellers", n).commit();
+ *
+ * Kalau level mati, info()/debug() mengembalikan record kosong yang
+ * mengabaikan semua field, jadi biayanya hanya satu perbandingan. Kalau ring
+ * penuh (writer tertinggal), record baru dibuang dan dihitung di
+ * {@link #getDroppedCount()} alih-alih membuat pemanggil menunggu.
+ *
+ * Nilai field object diformat belakangan dengan String.valueOf di thread
+ * writer, jadi hanya untuk nilai immutable (String, Throwable, enum, ...).
+ */
+public class EventLog implements AutoCloseable {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    public static final int  DEFAULT_CAPACITY       = 8192;
+    public static final long DEFAULT_MAX_FILE_BYTES = 10L * 1024 * 1024;
+    public static final int  DEFAULT_MAX_FILES      = 5;
+
+    private static final int  MAX_FIELDS       = 8;
+    private static final long IDLE_PARK_NANOS  = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final int  WRITE_BUFFER     = 64 * 1024;
+
+    // ── Ring buffer ──
+    private final Record[]        slots;
+    private final AtomicLongArray published;          // seq = slot lengkap
+    private final int             mask;
+    private final AtomicLong      cursor   = new AtomicLong(); // slot berikutnya yang diklaim
+    private volatile long         consumed;                    // semua seq < ini sudah ditulis
+    private final AtomicLong      dropped  = new AtomicLong();
+    private volatile int          threshold;
+    private final Record          disabled = new Record(this, -1);
+
+    // ── Writer (hanya disentuh thread writer) ──
+    private final String          source;
+    private final Path            file;                // null = tulis ke stdout
+    private final long            maxFileBytes;
+    private final int             maxFiles;
+    private WritableByteChannel   channel;
+    private long                  fileBytes;
+    private final StringBuilder   line    = new StringBuilder(256);
+    private final ByteBuffer      out     = ByteBuffer.allocateDirect(WRITE_BUFFER);
+    private final CharsetEncoder  encoder = StandardCharsets.UTF_8.newEncoder();
+    private final SimpleDateFormat secondFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+    private long                  cachedSecond = Long.MIN_VALUE;
+    private String                cachedSecondText;
+
+    private final Thread          writer;
+    private volatile boolean      closed;
+
+    /**
+     * @param source nama komponen, ditulis di tiap baris dan dipakai sebagai nama file
+     * @param dir    folder log; null atau tidak bisa dibuat = tulis ke stdout
+     */
+    public EventLog(String source, Path dir, Level level) {
+        this(source, dir, level, DEFAULT_CAPACITY, DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_FILES);
+    }
+
+    public EventLog(String source, Path dir, Level level, int capacity, long maxFileBytes, int maxFiles) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("capacity harus pangkat 2");
+        this.source       = source;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles     = Math.max(1, maxFiles);
+        this.threshold    = level.ordinal();
+
+        this.slots     = new Record[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask      = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Record(this, i);
+            published.set(i, -1);
+        }
+
+        Path target = null;
+        if (dir != null) {
+            try {
+                Files.createDirectories(dir);
+                target = dir.resolve(source + ".log");
+            } catch (IOException e) {
+                System.err.println("[EventLog] Folder log " + dir + " tidak bisa dibuat, tulis ke stdout: " + e);
+            }
+        }
+        this.file = target;
+
+        this.writer = new Thread(this::runWriter, "event-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "event-log-flush"));
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Producer
+    // ──────────────────────────────────────────────────────────
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold;
+    }
+
+    public void setLevel(Level level) {
+        this.threshold = level.ordinal();
+    }
+
+    public Record debug(String event) { return begin(Level.DEBUG, event); }
+    public Record info(String event)  { return begin(Level.INFO, event); }
+    public Record warn(String event)  { return begin(Level.WARN, event); }
+    public Record error(String event) { return begin(Level.ERROR, event); }
+
+    /** Record yang diklaim wajib di-{@link Record#commit()} */
+    public Record begin(Level level, String event) {
+        if (level.ordinal() < threshold || closed) return disabled;
+
+        long seq;
+        do {
+            seq = cursor.get();
+            if (seq - consumed >= slots.length) {   // ring penuh: buang, jangan menunggu writer
+                dropped.incrementAndGet();
+                return disabled;
+            }
+        } while (!cursor.compareAndSet(seq, seq + 1));
+        if (seq - consumed == slots.length >> 1) LockSupport.unpark(writer); // burst: jangan tunggu park habis
+
+        Record r = slots[(int) seq & mask];
+        r.seq        = seq;
+        r.timeMillis = System.currentTimeMillis();
+        r.level      = level;
+        r.event      = event;
+        r.thread     = Thread.currentThread().getName();
+        r.fieldCount = 0;
+        return r;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /** Slot di ring; dipakai ulang, jangan disimpan setelah commit */
+    public static final class Record {
+        private final EventLog owner;
+        private final int      slot;       // -1 = record kosong (level mati / ring penuh)
+
+        long   seq;
+        long   timeMillis;
+        Level  level;
+        String event;
+        String thread;
+        int    fieldCount;
+        final String[]  names   = new String[MAX_FIELDS];
+        final long[]    numbers = new long[MAX_FIELDS];
+        final Object[]  objects = new Object[MAX_FIELDS];  // null + isNumber = angka
+        final boolean[] isNumber = new boolean[MAX_FIELDS];
+
+        private Record(EventLog owner, int slot) {
+            this.owner = owner;
+            this.slot  = slot;
+        }
+
+        public Record field(String name, long value) {
+            if (slot < 0 || fieldCount == MAX_FIELDS) return this;
+            names[fieldCount]    = name;
+            numbers[fieldCount]  = value;
+            objects[fieldCount]  = null;
+            isNumber[fieldCount] = true;
+            fieldCount++;
+            return this;
+        }
+
+        /** Nilai immutable; diformat di thread writer */
+        public Record field(String name, Object value) {
+            if (slot < 0 || fieldCount == MAX_FIELDS) return this;
+            names[fieldCount]    = name;
+            objects[fieldCount]  = value;
+            isNumber[fieldCount] = false;
+            fieldCount++;
+            return this;
+        }
+
+        public void commit() {
+            if (slot >= 0) owner.published.lazySet(slot, seq);
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Writer
+    // ──────────────────────────────────────────────────────────
+
+    /** Tulis semua yang tersisa, lalu tutup file */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        try {
+            openChannel();
+            while (true) {
+                boolean stopping = closed;            // baca sebelum drain: commit terakhir ikut ditulis
+                int written = drain();
+                if (written == 0) {
+                    flush();
+                    if (stopping) break;
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[EventLog] Gagal menulis log " + source + ": " + e);
+        } finally {
+            try {
+                if (channel instanceof FileChannel) {
+                    ((FileChannel) channel).force(false);
+                    channel.close();
+                }
+            } catch (IOException ignored) {
+                // JVM sedang berhenti
+            }
+        }
+    }
+
+    /** @return jumlah record yang ditulis */
+    private int drain() throws IOException {
+        int n = 0;
+        long seq = consumed;
+        while (true) {
+            int i = (int) seq & mask;
+            if (published.get(i) != seq) break;       // belum di-commit
+            Record r = slots[i];
+            format(r);
+            for (int f = 0; f < r.fieldCount; f++) r.objects[f] = null; // jangan tahan referensi
+            seq++;
+            consumed = seq;                           // slot boleh diklaim lagi
+            n++;
+        }
+        return n;
+    }
+
+    private void format(Record r) throws IOException {
+        StringBuilder sb = line;
+        sb.setLength(0);
+        long second = r.timeMillis / 1000;
+        if (second != cachedSecond) {
+            cachedSecond     = second;
+            cachedSecondText = secondFormat.format(new Date(second * 1000));
+        }
+        long millis = r.timeMillis % 1000;
+        sb.append(cachedSecondText).append('.')
+          .append((char) ('0' + millis / 100)).append((char) ('0' + millis / 10 % 10)).append((char) ('0' + millis % 10));
+        sb.append(' ').append(r.level.name());
+        for (int pad = r.level.name().length(); pad < 5; pad++) sb.append(' ');
+        sb.append(" [").append(source).append("] ").append(r.event);
+        for (int f = 0; f < r.fieldCount; f++) {
+            sb.append(' ').append(r.names[f]).append('=');
+            if (r.isNumber[f]) sb.append(r.numbers[f]);
+            else appendValue(sb, r.objects[f]);
+        }
+        sb.append(" thread=").append(r.thread).append('\n');
+
+        if (r.level.ordinal() >= Level.WARN.ordinal() && file != null) System.err.print(sb);
+        write(sb);
+    }
+
+    /** String dengan spasi / kutip ditulis dalam tanda kutip */
+    private static void appendValue(StringBuilder sb, Object value) {
+        String s = String.valueOf(value);
+        boolean quote = s.isEmpty();
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c <= ' ' || c == '"' || c == '=';
+        }
+        if (!quote) {
+            sb.append(s);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c == '\n') sb.append("\\n");
+            else if (c == '\r') sb.append("\\r");
+            else sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private void write(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, out, true);
+            if (result.isOverflow()) {
+                flush();
+            } else {
+                break;
+            }
+        }
+        if (file != null && fileBytes + out.position() > maxFileBytes) {
+            flush();
+            roll();
+        }
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) fileBytes += channel.write(out);
+        out.clear();
+    }
+
+    private void openChannel() throws IOException {
+        if (file == null) {
+            channel = Channels.newChannel(System.out);
+            return;
+        }
+        FileChannel fc = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        fileBytes = fc.size();
+        channel = fc;
+    }
+
+    /** source.log -> source.1.log -> ... -> source.(maxFiles-1).log (terlama dibuang) */
+    private void roll() throws IOException {
+        channel.close();
+        Path dir = file.getParent();
+        Files.deleteIfExists(dir.resolve(source + "." + (maxFiles - 1) + ".log"));
+        for (int i = maxFiles - 2; i >= 1; i--) {
+            Path from = dir.resolve(source + "." + i + ".log");
+            if (Files.exists(from)) {
+                Files.move(from, dir.resolve(source + "." + (i + 1) + ".log"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 1) Files.move(file, dir.resolve(source + ".1.log"), StandardCopyOption.REPLACE_EXISTING);
+        else Files.deleteIfExists(file);
+        openChannel();
+    }
+}
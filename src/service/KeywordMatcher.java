@@ -0,0 +1,214 @@
+package service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * KeywordMatcher - Multi-keyword matcher (Aho-Corasick automaton)
+ *
+ * Semua keyword di-compile sekali menjadi satu DFA, lalu pesan cukup
+ * di-scan satu kali: setiap state menyimpan OR dari flag semua keyword
+ * yang berakhir di posisi itu. Biaya per pesan = panjang pesan, tidak
+ * bertambah walaupun jumlah keyword bertambah.
+ *
+ * Matching bersifat substring (sama seperti String.contains), jadi
+ * keyword harus sudah dalam bentuk lowercase seperti pesannya.
+ *
+ * Selain flag, setiap state juga tahu keyword terpanjang yang berakhir
+ * di situ, sehingga {@link #longestMatch} bisa mencari kemunculan
+ * terpanjang (mis. "es teh manis" mengalahkan "es teh") dalam scan yang sama.
+ */
+public class KeywordMatcher {
+
+    private final List<String> keywords = new ArrayList<>();
+    private final List<Integer> masks   = new ArrayList<>();
+
+    // Compiled automaton
+    private int[] asciiClass;                 // char < 128 -> kelas alfabet, -1 = tidak dipakai
+    private Map<Character, Integer> otherClass;
+    private int   alphabetSize;
+    private int[] delta;                      // delta[state * alphabetSize + cls] -> state berikutnya
+    private int[] output;                     // flag yang match saat berada di state
+    private int[] longest;                    // id keyword terpanjang yang berakhir di state, -1 = tidak ada
+    private int[] terminal;                   // id keyword yang persis berakhir di state (node trie), -1 = bukan
+    private int[] dictSuffix;                 // state suffix terdekat yang terminal, -1 = tidak ada
+    private boolean compiled = false;
+
+    /**
+     * Daftarkan satu atau lebih keyword yang menghasilkan flag {@code mask}.
+     * Id keyword = urutan pendaftarannya (0, 1, 2, ...).
+     */
+    public void add(int mask, String... words) {
+        if (compiled) throw new IllegalStateException("KeywordMatcher sudah di-compile");
+        for (String w : words) {
+            if (w == null || w.isEmpty()) continue;
+            keywords.add(w);
+            masks.add(mask);
+        }
+    }
+
+    /** Bangun trie + failure link lalu ratakan menjadi tabel transisi DFA. */
+    public void compile() {
+        if (compiled) return;
+
+        // 1. Alfabet hanya berisi karakter yang muncul di keyword
+        asciiClass = new int[128];
+        Arrays.fill(asciiClass, -1);
+        otherClass = new HashMap<>();
+        alphabetSize = 0;
+        for (String w : keywords) {
+            for (int i = 0; i < w.length(); i++) {
+                char c = w.charAt(i);
+                if (classOf(c) < 0) {
+                    if (c < 128) asciiClass[c] = alphabetSize++;
+                    else otherClass.put(c, alphabetSize++);
+                }
+            }
+        }
+
+        // 2. Trie (jumlah state maksimal = total panjang keyword + root)
+        int maxStates = 1;
+        for (String w : keywords) maxStates += w.length();
+        int[] trie = new int[Math.max(1, maxStates * alphabetSize)];
+        Arrays.fill(trie, -1);
+        int[] out = new int[maxStates];
+        int[] best = new int[maxStates];
+        Arrays.fill(best, -1);
+        int states = 1;
+
+        for (int k = 0; k < keywords.size(); k++) {
+            String w = keywords.get(k);
+            int s = 0;
+            for (int i = 0; i < w.length(); i++) {
+                int idx = s * alphabetSize + classOf(w.charAt(i));
+                if (trie[idx] < 0) trie[idx] = states++;
+                s = trie[idx];
+            }
+            out[s] |= masks.get(k);
+            if (best[s] < 0) best[s] = k; // keyword duplikat: yang pertama didaftarkan menang
+        }
+
+        // 3. BFS: failure link, output diwariskan, transisi kosong diisi (DFA)
+        int[] term = Arrays.copyOf(best, states); // sebelum diwariskan = keyword yang berakhir persis di node
+        int[] dict = new int[states];
+        Arrays.fill(dict, -1);
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < alphabetSize; c++) {
+            int next = trie[c];
+            if (next < 0) {
+                trie[c] = 0;
+            } else {
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            out[s] |= out[fail[s]];
+            if (best[s] < 0) best[s] = best[fail[s]]; // suffix selalu lebih pendek
+            for (int c = 0; c < alphabetSize; c++) {
+                int idx  = s * alphabetSize + c;
+                int next = trie[idx];
+                if (next < 0) {
+                    trie[idx] = trie[fail[s] * alphabetSize + c];
+                } else {
+                    fail[next] = trie[fail[s] * alphabetSize + c];
+                    dict[next] = term[fail[next]] >= 0 ? fail[next] : dict[fail[next]];
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.delta  = Arrays.copyOf(trie, states * alphabetSize);
+        this.output = Arrays.copyOf(out, states);
+        this.longest = Arrays.copyOf(best, states);
+        this.terminal = term;
+        this.dictSuffix = dict;
+        this.compiled = true;
+    }
+
+    /**
+     * Scan pesan satu kali dan kembalikan OR dari flag semua keyword yang
+     * muncul di dalamnya (0 jika tidak ada).
+     */
+    public int match(CharSequence text) {
+        if (!compiled) throw new IllegalStateException("KeywordMatcher belum di-compile");
+        if (text == null || alphabetSize == 0) return 0;
+
+        int state = 0;
+        int found = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            int cls = classOf(text.charAt(i));
+            state = cls < 0 ? 0 : delta[state * alphabetSize + cls];
+            found |= output[state];
+        }
+        return found;
+    }
+
+    /**
+     * Scan pesan satu kali dan kembalikan id keyword terpanjang yang muncul.
+     * Jika panjangnya sama, keyword yang didaftarkan lebih dulu menang.
+     *
+     * @return id keyword, atau -1 jika tidak ada yang muncul
+     */
+    public int longestMatch(CharSequence text) {
+        if (!compiled) throw new IllegalStateException("KeywordMatcher belum di-compile");
+        if (text == null || alphabetSize == 0) return -1;
+
+        int state   = 0;
+        int bestId  = -1;
+        int bestLen = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            int cls = classOf(text.charAt(i));
+            state = cls < 0 ? 0 : delta[state * alphabetSize + cls];
+            int id = longest[state];
+            if (id >= 0) {
+                int len = keywords.get(id).length();
+                if (len > bestLen || (len == bestLen && id < bestId)) {
+                    bestId  = id;
+                    bestLen = len;
+                }
+            }
+        }
+        return bestId;
+    }
+
+    /**
+     * Scan pesan satu kali dan laporkan id setiap kemunculan keyword
+     * (keyword yang sama bisa dilaporkan lebih dari sekali). Keyword duplikat
+     * dilaporkan dengan id pendaftaran pertamanya.
+     */
+    public void matchAll(CharSequence text, IntConsumer action) {
+        if (!compiled) throw new IllegalStateException("KeywordMatcher belum di-compile");
+        if (text == null || alphabetSize == 0) return;
+
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            int cls = classOf(text.charAt(i));
+            state = cls < 0 ? 0 : delta[state * alphabetSize + cls];
+            for (int t = terminal[state] >= 0 ? state : dictSuffix[state]; t >= 0; t = dictSuffix[t]) {
+                action.accept(terminal[t]);
+            }
+        }
+    }
+
+    public String getKeyword(int id) {
+        return keywords.get(id);
+    }
+
+    public int getKeywordCount() {
+        return keywords.size();
+    }
+
+    private int classOf(char c) {
+        if (c < 128) return asciiClass[c];
+        Integer cls = otherClass.get(c);
+        return cls == null ? -1 : cls;
+    }
+}
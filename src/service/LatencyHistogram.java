@@ -0,0 +1,168 @@
+package service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram - Histogram latensi lock-free ala HdrHistogram
+ *
+ * Nilai disimpan dalam mikrodetik di bucket log-linear: di bawah 128 µs
+ * satu bucket per mikrodetik, di atasnya tiap rentang pangkat dua dibagi
+ * 64 sub-bucket sama lebar. Jadi error relatif paling besar ~1,6% untuk
+ * nilai berapa pun sampai batas atas, dan ukuran array tetap (dialokasikan
+ * sekali di konstruktor).
+ *
+ * record() hanya satu incrementAndGet di AtomicLongArray + LongAdder untuk
+ * jumlah total; min/max memakai CAS yang jarang terjadi (hanya saat rekor
+ * baru). Aman dipanggil dari thread mana pun tanpa lock. Persentil dibaca
+ * dari salinan bucket ({@link #snapshot()}), tidak menghentikan recorder.
+ *
+ * Nilai di atas batas atas dicatat di bucket terakhir (max tetap akurat).
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+
+    /** Default batas atas: 1 jam */
+    public static final long DEFAULT_HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private static final int SUB_BUCKET_BITS  = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;   // per pangkat dua
+
+    private final String          name;
+    private final long            highestTrackable;
+    private final AtomicLongArray counts;
+    private final LongAdder       sum = new LongAdder();
+    private final AtomicLong      min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong      max = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this(name, DEFAULT_HIGHEST_TRACKABLE_MICROS);
+    }
+
+    public LatencyHistogram(String name, long highestTrackableMicros) {
+        if (highestTrackableMicros < 2 * SUB_BUCKET_COUNT) {
+            throw new IllegalArgumentException("highestTrackableMicros minimal " + 2 * SUB_BUCKET_COUNT);
+        }
+        this.name             = name;
+        this.highestTrackable = highestTrackableMicros;
+        this.counts           = new AtomicLongArray(indexOf(highestTrackableMicros) + 1);
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Recording
+    // ──────────────────────────────────────────────────────────
+
+    /** Catat satu sampel dari selisih System.nanoTime() */
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1000);
+    }
+
+    /** Catat durasi sejak startNanos (System.nanoTime()) sampai sekarang */
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public void recordMicros(long micros) {
+        if (micros < 0) micros = 0;
+        counts.incrementAndGet(indexOf(Math.min(micros, highestTrackable)));
+        sum.add(micros);
+
+        long m;
+        while (micros < (m = min.get()) && !min.compareAndSet(m, micros)) { }
+        while (micros > (m = max.get()) && !max.compareAndSet(m, micros)) { }
+    }
+
+    /** Bucket untuk nilai v: linear di bawah 2 * SUB_BUCKET_COUNT, lalu 64 sub-bucket per pangkat dua */
+    private static int indexOf(long v) {
+        if (v < 2 * SUB_BUCKET_COUNT) return (int) v;
+        int exp   = 63 - Long.numberOfLeadingZeros(v);            // v di [2^exp, 2^(exp+1))
+        int shift = exp - SUB_BUCKET_BITS;
+        int sub   = (int) (v >>> shift) - SUB_BUCKET_COUNT;       // 0 .. SUB_BUCKET_COUNT-1
+        return (shift + 1) * SUB_BUCKET_COUNT + sub;
+    }
+
+    /** Nilai tertinggi yang jatuh ke bucket index (seperti highestEquivalentValue di HdrHistogram) */
+    private static long highestValueAt(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) return index;
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long low  = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return low + (1L << shift) - 1;
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Reading
+    // ──────────────────────────────────────────────────────────
+
+    /** Salinan bucket saat ini; sampel yang masuk selama penyalinan bisa ikut atau tidak */
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        long lo = min.get();
+        return new Snapshot(copy, total, total == 0 ? 0 : lo, max.get(), sum.sum());
+    }
+
+    /** Hasil baca histogram; immutable */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long   count;
+        private final long   min;
+        private final long   max;
+        private final long   sum;
+
+        private Snapshot(long[] counts, long count, long min, long max, long sum) {
+            this.counts = counts;
+            this.count  = count;
+            this.min    = min;
+            this.max    = max;
+            this.sum    = sum;
+        }
+
+        public long getCount() { return count; }
+        public long getMin()   { return min; }
+        public long getMax()   { return max; }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @param percentile 0..100 (mis. 99.9)
+         * @return batas atas bucket tempat persentil itu jatuh (µs), tidak melebihi max
+         */
+        public long valueAt(double percentile) {
+            if (count == 0) return 0;
+            long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) return Math.min(highestValueAt(i), max);
+            }
+            return max;
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  JMX
+    // ──────────────────────────────────────────────────────────
+    @Override public String getName()      { return name; }
+    @Override public long   getCount()     { return snapshot().getCount(); }
+    @Override public long   getMinMicros() { return snapshot().getMin(); }
+    @Override public long   getMaxMicros() { return max.get(); }
+    @Override public double getMeanMicros() { return snapshot().getMean(); }
+    @Override public long   getP50Micros()  { return snapshot().valueAt(50); }
+    @Override public long   getP99Micros()  { return snapshot().valueAt(99); }
+    @Override public long   getP999Micros() { return snapshot().valueAt(99.9); }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+        sum.reset();
+        min.set(Long.MAX_VALUE);
+        max.set(0);
+    }
+}
@@ -0,0 +1,29 @@
+package service;
+
+/**
+ * LatencyHistogramMBean - Atribut JMX satu LatencyHistogram
+ *
+ * Semua nilai dalam mikrodetik. Persentil dihitung dari salinan bucket
+ * saat atribut dibaca (JConsole / VisualVM / jmxterm).
+ */
+public interface LatencyHistogramMBean {
+
+    String getName();
+
+    long getCount();
+
+    long getMinMicros();
+
+    long getMaxMicros();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    /** Mulai hitung dari nol (sampel yang masuk bersamaan bisa hilang) */
+    void reset();
+}
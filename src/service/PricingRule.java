@@ -0,0 +1,44 @@
+package service;
+
+/**
+ * PricingRule - Satu aturan promo (diskon dan/atau catatan) untuk penawaran harga
+ *
+ * Rule berlaku jika semua intent di {@code requiredIntent} terdeteksi,
+ * quantity >= {@code minQuantity}, dan (kalau diisi) produknya cocok.
+ * Dari semua rule yang berlaku, yang {@code priority}-nya paling kecil menang.
+ */
+public final class PricingRule {
+
+    private final String name;
+    private final int    priority;
+    private final int    requiredIntent;   // bitmask BuyerIntent
+    private final int    minQuantity;
+    private final String product;          // nama produk lowercase, null = semua produk
+    private final int    discountPercent;
+    private final String note;
+
+    public PricingRule(String name, int priority, int requiredIntent, int minQuantity,
+                       String product, int discountPercent, String note) {
+        this.name            = name;
+        this.priority        = priority;
+        this.requiredIntent  = requiredIntent;
+        this.minQuantity     = minQuantity;
+        this.product         = product;
+        this.discountPercent = discountPercent;
+        this.note            = note;
+    }
+
+    public String getName()            { return name; }
+    public int    getPriority()        { return priority; }
+    public int    getRequiredIntent()  { return requiredIntent; }
+    public int    getMinQuantity()     { return minQuantity; }
+    public String getProduct()         { return product; }
+    public int    getDiscountPercent() { return discountPercent; }
+    public String getNote()            { return note; }
+
+    boolean appliesTo(int intent, String productName, int quantity) {
+        return BuyerIntent.has(intent, requiredIntent)
+                && quantity >= minQuantity
+                && (product == null || product.equals(productName));
+    }
+}
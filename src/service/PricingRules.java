@@ -0,0 +1,214 @@
+package service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * PricingRules - Rules engine promo untuk generateBuyerFriendlyPricing
+ *
+ * Rule dibaca dari file teks lokal (satu rule per baris, kolom dipisah "|"):
+ *
+ *   # name          | priority | when              | min_qty | product | discount_% | note
+ *   budget-bundle   | 10       | budget            | 2       | *       | 15         | Student/Budget Bundle applied!
+ *
+ * Saat di-load, semua rule di-compile menjadi tabel keputusan per produk:
+ * index [intent mask][bucket quantity] langsung menunjuk rule pemenang,
+ * jadi evaluasi per penawaran tetap O(1) walaupun jumlah rule ratusan.
+ *
+ * File dicek ulang (paling sering tiap {@link #RELOAD_CHECK_MILLIS}) dan
+ * di-compile ulang saat berubah, tanpa restart aplikasi. Kalau file rusak,
+ * rule lama tetap dipakai.
+ */
+public class PricingRules {
+
+    public static final String DEFAULT_FILE = "pricing-rules.txt";
+    public static final long   RELOAD_CHECK_MILLIS = 1000;
+
+    /** Dipakai kalau file rule tidak ada (sama dengan promo bawaan aplikasi) */
+    static final String DEFAULT_RULES =
+            "budget-bundle | 10 | budget           | 2 | * | 15 | Student/Budget Bundle applied!\n" +
+            "group-order   | 20 | -                | 5 | * | 10 | Group order discount applied!\n" +
+            "sweet-savory  | 30 | sweet+heavy_meal | 0 | * | 0  | Sweet & Savory Combo: Add Es Campur for only Rp 8,000 more (save Rp 4,000)!\n";
+
+    /** Hasil compile: immutable, diganti utuh saat reload */
+    private static final class Compiled {
+        final List<PricingRule> rules;
+        final int[] thresholds;                  // min_qty unik, terurut naik
+        final int   buckets;                     // thresholds.length + 1
+        final PricingRule[] anyProduct;          // [mask * buckets + bucket]
+        final Map<String, PricingRule[]> byProduct;
+
+        Compiled(List<PricingRule> rules) {
+            List<PricingRule> sorted = new ArrayList<>(rules);
+            Collections.sort(sorted, (a, b) -> Integer.compare(a.getPriority(), b.getPriority())); // stabil
+
+            TreeSet<Integer> qty = new TreeSet<>();
+            for (PricingRule r : sorted) {
+                if (r.getMinQuantity() > 0) qty.add(r.getMinQuantity());
+            }
+            this.rules      = Collections.unmodifiableList(sorted);
+            this.thresholds = new int[qty.size()];
+            int i = 0;
+            for (int q : qty) thresholds[i++] = q;
+            this.buckets    = thresholds.length + 1;
+
+            this.anyProduct = buildTable(sorted, null);
+            this.byProduct  = new HashMap<>();
+            for (PricingRule r : sorted) {
+                if (r.getProduct() != null && !byProduct.containsKey(r.getProduct())) {
+                    byProduct.put(r.getProduct(), buildTable(sorted, r.getProduct()));
+                }
+            }
+        }
+
+        /** Isi tabel dengan rule pertama (prioritas) yang berlaku di tiap sel */
+        private PricingRule[] buildTable(List<PricingRule> sorted, String product) {
+            PricingRule[] table = new PricingRule[BuyerIntent.COMBINATIONS * buckets];
+            for (int mask = 0; mask < BuyerIntent.COMBINATIONS; mask++) {
+                for (int b = 0; b < buckets; b++) {
+                    int qty = b == 0 ? 0 : thresholds[b - 1]; // quantity terkecil di bucket ini
+                    for (PricingRule r : sorted) {
+                        if (r.appliesTo(mask, product, qty)) {
+                            table[mask * buckets + b] = r;
+                            break;
+                        }
+                    }
+                }
+            }
+            return table;
+        }
+
+        PricingRule evaluate(int intent, String product, int quantity) {
+            PricingRule[] table = anyProduct;
+            if (product != null && !byProduct.isEmpty()) {
+                PricingRule[] specific = byProduct.get(product);
+                if (specific != null) table = specific;
+            }
+            // bucket = jumlah threshold yang sudah terlampaui
+            int bucket = Arrays.binarySearch(thresholds, quantity);
+            bucket = bucket >= 0 ? bucket + 1 : -bucket - 1;
+            return table[(intent & (BuyerIntent.COMBINATIONS - 1)) * buckets + bucket];
+        }
+    }
+
+    private final Path file;
+    private volatile Compiled compiled;
+    private volatile long lastModified = Long.MIN_VALUE;
+    private volatile long nextCheck    = 0;
+
+    public PricingRules() {
+        this(Paths.get(DEFAULT_FILE));
+    }
+
+    public PricingRules(Path file) {
+        this.file = file;
+        this.compiled = new Compiled(parse(DEFAULT_RULES, "default"));
+        reloadIfChanged();
+    }
+
+    /** Rule yang menang untuk penawaran ini, atau null jika tidak ada promo */
+    public PricingRule evaluate(int intent, String productName, int quantity) {
+        return compiled.evaluate(intent, productName, quantity);
+    }
+
+    public List<PricingRule> getRules() {
+        return compiled.rules;
+    }
+
+    /**
+     * Cek file rule (dibatasi tiap RELOAD_CHECK_MILLIS), compile ulang kalau berubah.
+     *
+     * @return true jika rule yang aktif berganti
+     */
+    public boolean reloadIfChanged() {
+        long now = System.currentTimeMillis();
+        if (now < nextCheck) return false;
+        synchronized (this) {
+            if (now < nextCheck) return false;
+            nextCheck = now + RELOAD_CHECK_MILLIS;
+
+            long modified;
+            try {
+                modified = Files.getLastModifiedTime(file).toMillis();
+            } catch (NoSuchFileException e) {
+                modified = Long.MIN_VALUE; // tidak ada file -> rule bawaan
+            } catch (IOException e) {
+                System.err.println("[PricingRules] Gagal cek " + file + ": " + e.getMessage());
+                return false;
+            }
+            if (modified == lastModified) return false;
+
+            try {
+                List<PricingRule> rules = modified == Long.MIN_VALUE
+                        ? parse(DEFAULT_RULES, "default")
+                        : parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), file.toString());
+                compiled = new Compiled(rules);
+                lastModified = modified;
+                System.out.println("[PricingRules] " + rules.size() + " rule aktif dari "
+                        + (modified == Long.MIN_VALUE ? "default" : file.toString()));
+                return true;
+            } catch (IOException | IllegalArgumentException e) {
+                lastModified = modified; // jangan parse file rusak yang sama berulang kali
+                System.err.println("[PricingRules] Rule tidak di-reload: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Parser
+    // ──────────────────────────────────────────────────────────
+    static List<PricingRule> parse(String text, String source) {
+        List<PricingRule> rules = new ArrayList<>();
+        String[] lines = text.split("\r?\n");
+        for (int ln = 0; ln < lines.length; ln++) {
+            String line = lines[ln].trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] col = line.split("\\|", 7);
+            if (col.length != 7) {
+                throw new IllegalArgumentException(source + ":" + (ln + 1) + " butuh 7 kolom, ada " + col.length);
+            }
+            try {
+                String name     = col[0].trim();
+                int    priority = Integer.parseInt(col[1].trim());
+                int    intent   = parseIntent(col[2].trim());
+                int    minQty   = Integer.parseInt(col[3].trim());
+                String product  = col[4].trim();
+                int    discount = Integer.parseInt(col[5].trim());
+                String note     = col[6].trim();
+
+                if (discount < 0 || discount > 100) throw new IllegalArgumentException("discount_% harus 0-100");
+                rules.add(new PricingRule(name, priority, intent, Math.max(0, minQty),
+                        product.equals("*") || product.isEmpty() ? null : product.toLowerCase(),
+                        discount, note));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + ":" + (ln + 1) + " " + e.getMessage());
+            }
+        }
+        return rules;
+    }
+
+    /** "sweet+heavy_meal" -> bitmask; "-" atau kosong = tanpa syarat intent */
+    private static int parseIntent(String when) {
+        if (when.isEmpty() || when.equals("-")) return 0;
+        int mask = 0;
+        for (String name : when.split("\\+")) {
+            int flag = BuyerIntent.flagOf(name.trim());
+            if (flag == 0) throw new IllegalArgumentException("intent tidak dikenal: " + name.trim());
+            mask |= flag;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,46 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.Product;
+
+/**
+ * ProductIndex - Index nama produk untuk deteksi produk di pesan buyer
+ *
+ * Nama produk (lowercase) di-compile sekali ke KeywordMatcher, jadi
+ * pencarian hanya sebanding dengan panjang pesan, bukan ukuran katalog.
+ * Aturan longest-match: "Es Teh Manis" menang atas "Es Teh".
+ */
+public class ProductIndex {
+
+    private final List<Product> products = new ArrayList<>(); // sejajar dengan id keyword
+    private final KeywordMatcher matcher = new KeywordMatcher();
+
+    public ProductIndex(List<Product> catalog) {
+        for (Product p : catalog) {
+            String name = normalize(p.getName());
+            if (name.isEmpty()) continue;
+            matcher.add(0, name);
+            products.add(p);
+        }
+        matcher.compile();
+    }
+
+    /**
+     * Cari produk yang disebut di pesan (pesan sudah lowercase).
+     *
+     * @return produk dengan nama terpanjang yang muncul, atau null
+     */
+    public Product find(String message) {
+        int id = matcher.longestMatch(message);
+        return id < 0 ? null : products.get(id);
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase().trim();
+    }
+}
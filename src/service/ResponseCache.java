@@ -0,0 +1,103 @@
+package service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Product;
+
+/**
+ * ResponseCache - LRU cache jawaban AI, key = pesan buyer yang sudah dinormalisasi
+ *
+ * Satu entry per pesan menyimpan jawaban untuk ketiga ResponseType, jadi
+ * lookup tidak perlu membuat object key baru. Thread-safe (synchronized),
+ * dibatasi jumlah pesan, dengan counter hit/miss.
+ *
+ * Jawaban yang bergantung pada stok mencatat rentang stok tempat teksnya
+ * masih benar; begitu stok produk keluar dari rentang itu, entry dianggap
+ * basi dan dihitung sebagai miss.
+ */
+public class ResponseCache {
+
+    /** Jawaban yang di-cache + info yang dibutuhkan untuk memakainya lagi */
+    static final class Entry {
+        final String  text;
+        final Product stockProduct;   // null = tidak bergantung stok
+        final int     minStock, maxStock;
+        final Product orderProduct;   // != null -> jawaban ini menyimpan pending order
+        final int     orderQty;
+        final String  orderPreference;
+
+        Entry(String text, Product stockProduct, int minStock, int maxStock,
+              Product orderProduct, int orderQty, String orderPreference) {
+            this.text            = text;
+            this.stockProduct    = stockProduct;
+            this.minStock        = minStock;
+            this.maxStock        = maxStock;
+            this.orderProduct    = orderProduct;
+            this.orderQty        = orderQty;
+            this.orderPreference = orderPreference;
+        }
+
+        boolean isFresh() {
+            if (stockProduct == null) return true;
+            int stock = stockProduct.getStock();
+            return stock >= minStock && stock <= maxStock;
+        }
+    }
+
+    private static final int TYPES = SellerAIService.ResponseType.values().length;
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry[]> entries;
+    private final AtomicLong hits   = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ResponseCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, Entry[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ResponseCache.Entry[]> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    synchronized Entry get(String message, SellerAIService.ResponseType type) {
+        Entry[] row = entries.get(message);
+        Entry e = row == null ? null : row[type.ordinal()];
+        if (e != null && !e.isFresh()) {
+            row[type.ordinal()] = null; // stok berubah -> buang
+            e = null;
+        }
+        if (e == null) misses.incrementAndGet();
+        else           hits.incrementAndGet();
+        return e;
+    }
+
+    synchronized void put(String message, SellerAIService.ResponseType type, Entry e) {
+        if (maxEntries <= 0) return;
+        Entry[] row = entries.get(message);
+        if (row == null) {
+            row = new Entry[TYPES];
+            entries.put(message, row);
+        }
+        row[type.ordinal()] = e;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int  getMaxEntries() { return maxEntries; }
+    public long getHits()       { return hits.get(); }
+    public long getMisses()     { return misses.get(); }
+
+    public double getHitRate() {
+        long h = hits.get(), total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
@@ -1,11 +1,19 @@
 package service;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.ChatRequest;
+import model.Money;
 import model.Product;
 
 /**
@@ -20,44 +28,273 @@ import model.Product;
  */
 public class SellerAIService {
 
+    /** Tabel keyword -> intent, di-compile sekali untuk semua instance */
+    private static final KeywordMatcher INTENT_MATCHER = buildIntentMatcher();
+
+    /** Penjelasan produk untuk setiap kombinasi intent, dihitung sekali saat startup */
+    private static final String[] EXPLANATIONS = buildExplanationTable();
+
+    /** Default umur penawaran harga sebelum hold stoknya dilepas */
+    public static final long DEFAULT_ORDER_TTL_MILLIS = 10 * 60 * 1000L;
+
+    /** Teks penawaran memakai pemisah ribuan koma, sama seperti daftar menu */
+    private static final char PRICE_GROUPING = ',';
+
+    /** Default jumlah pesan berbeda yang jawabannya di-cache */
+    public static final int DEFAULT_RESPONSE_CACHE_SIZE = 512;
+
+    /** Batch di bawah ukuran ini dikerjakan satu thread (tidak di-split lagi) */
+    private static final int BATCH_SPLIT_THRESHOLD = 8;
+
     private List<Product> catalog;
+    private ProductIndex  productIndex;
     private Map<Integer, PendingOrder> pendingOrders;
 
+    // Expiry pending order (hashed timing wheel, tick 1 detik)
+    private final long orderTtlMillis;
+    private final TimingWheel<PendingOrder> orderExpiry;
+    private volatile PendingOrderListener pendingOrderListener;
+
+    // Naik tiap releaseAllPendingOrders(); generate yang mulai sebelum itu tidak boleh menaruh order baru
+    private final AtomicInteger orderGeneration = new AtomicInteger();
+
+    private final ResponseCache responseCache;
+    private final PricingRules  pricingRules;
+
+    // Pool untuk generateAllResponses(List) dan versi async-nya — worker dibuat saat pertama dipakai
+    private final ForkJoinPool batchPool;
+
+    // Pool terbatas untuk generateResponseAsync (tombol AI), supaya EDT tidak pernah menunggu
+    private final ExecutorService suggestionPool;
+
     public enum ResponseType {
         PRODUCT_EXPLANATION,
         PRICE_ESTIMATION,
         STOCK_AVAILABILITY
     }
 
+    /** Dipanggil (dari thread timing wheel) saat penawaran kedaluwarsa */
+    public interface PendingOrderListener {
+        void onOrderExpired(int requestId, String productName, int quantity);
+    }
+
     private class PendingOrder {
+        int requestId;
         Product product;
         int quantity;
         String preference; // buyer's taste preference
+        int generation;    // orderGeneration saat generate dimulai
+        boolean held;      // quantity sedang di-reserve dari stok (baru setelah seller mengirim penawaran)
+        boolean closed;    // sudah keluar dari pendingOrders (dikonfirmasi / dibatalkan / kedaluwarsa)
+        TimingWheel<PendingOrder>.Timeout expiry;
 
-        PendingOrder(Product product, int quantity, String preference) {
+        PendingOrder(int requestId, Product product, int quantity, String preference, int generation) {
+            this.requestId = requestId;
             this.product = product;
             this.quantity = quantity;
             this.preference = preference;
+            this.generation = generation;
+        }
+
+        /** Reserve stok kalau belum; no-op untuk order yang sudah ditutup */
+        synchronized boolean hold() {
+            if (!closed && !held) held = product.reserve(quantity);
+            return held && !closed;
+        }
+
+        /** @return true jika stoknya masih di-hold — pemanggil yang wajib release / commit */
+        synchronized boolean close() {
+            if (closed) return false;
+            closed = true;
+            return held;
+        }
+
+        /** Konfirmasi gagal reserve: order kembali pending (tanpa hold) sampai TTL */
+        synchronized void reopen() {
+            closed = false;
+        }
+    }
+
+    /**
+     * Catatan dari generator tentang bisa/tidaknya jawaban di-cache:
+     * bergantung stok produk apa, dan apakah menyimpan pending order.
+     */
+    private static class CacheHint {
+        boolean cacheable = true;
+        Product stockProduct;
+        int     minStock, maxStock;
+        Product orderProduct;
+        int     orderQty;
+        String  orderPreference;
+
+        void dependsOnStock(Product p, int min, int max) {
+            stockProduct = p; minStock = min; maxStock = max;
+        }
+
+        void recordsOrder(Product p, int qty, String preference) {
+            orderProduct = p; orderQty = qty; orderPreference = preference;
+        }
+
+        ResponseCache.Entry toEntry(String text) {
+            return new ResponseCache.Entry(text, stockProduct, minStock, maxStock,
+                    orderProduct, orderQty, orderPreference);
         }
     }
 
     public SellerAIService() {
+        this(DEFAULT_ORDER_TTL_MILLIS);
+    }
+
+    /**
+     * @param orderTtlMillis berapa lama penawaran harga (dan hold stoknya)
+     *                       bertahan sebelum dilepas otomatis
+     */
+    public SellerAIService(long orderTtlMillis) {
+        this(orderTtlMillis, DEFAULT_RESPONSE_CACHE_SIZE);
+    }
+
+    /**
+     * @param orderTtlMillis    TTL penawaran harga
+     * @param responseCacheSize jumlah maksimal pesan di response cache (0 = nonaktif)
+     */
+    public SellerAIService(long orderTtlMillis, int responseCacheSize) {
         this.catalog = new ArrayList<>();
-        this.pendingOrders = new HashMap<>();
+        this.pendingOrders = new ConcurrentHashMap<>();
+        this.orderTtlMillis = orderTtlMillis;
+        this.responseCache = new ResponseCache(responseCacheSize);
+        this.pricingRules = new PricingRules();
+        this.batchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        this.suggestionPool = newSuggestionPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        this.orderExpiry = new TimingWheel<>("pending-order-expiry", 1000, 512, this::expireOrder);
         initializeCatalog();
+        this.productIndex = new ProductIndex(catalog);
+    }
+
+    public void setPendingOrderListener(PendingOrderListener listener) {
+        this.pendingOrderListener = listener;
+    }
+
+    public int getPendingOrderCount() {
+        return pendingOrders.size();
+    }
+
+    /** @return true jika request ini masih punya penawaran yang menunggu konfirmasi */
+    public boolean hasPendingOrder(int requestId) {
+        return pendingOrders.containsKey(requestId);
+    }
+
+    /**
+     * Tahan stok untuk penawaran request ini, dipanggil saat seller benar-benar
+     * mengirim form harga / stok. Draft dari suggest, AI Fill All, atau cache
+     * tidak menahan stok, jadi draft yang tidak pernah dikirim tidak mengunci
+     * stok selama TTL.
+     *
+     * @return false jika tidak ada penawaran, atau stok tidak cukup lagi
+     *         (konfirmasi nanti akan mencoba reserve ulang)
+     */
+    public boolean holdPendingOrder(int requestId) {
+        PendingOrder order = pendingOrders.get(requestId);
+        return order != null && order.hold();
+    }
+
+    /**
+     * Batalkan penawaran request ini (mis. sesi buyer berakhir) dan lepas hold stoknya.
+     *
+     * @return false jika tidak ada penawaran
+     */
+    public boolean releasePendingOrder(int requestId) {
+        PendingOrder order = pendingOrders.remove(requestId);
+        if (order == null) return false;
+        cancelOrder(order);
+        return true;
+    }
+
+    /**
+     * Batalkan semua penawaran dan lepas hold stoknya (mis. semua chat dihapus).
+     * Generate yang masih berjalan dari sebelum panggilan ini tidak akan menaruh
+     * penawaran baru, jadi requestId yang dipakai ulang tidak mewarisi order lama.
+     *
+     * @return jumlah penawaran yang dilepas
+     */
+    public int releaseAllPendingOrders() {
+        orderGeneration.incrementAndGet();
+        int released = 0;
+        for (PendingOrder order : pendingOrders.values()) {
+            if (pendingOrders.remove(order.requestId, order)) {
+                cancelOrder(order);
+                released++;
+            }
+        }
+        return released;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public PricingRules getPricingRules() {
+        return pricingRules;
+    }
+
+    /** Hentikan thread expiry (dipanggil saat aplikasi ditutup) */
+    public void shutdown() {
+        orderExpiry.shutdown();
+        batchPool.shutdown();
+        suggestionPool.shutdownNow();
+    }
+
+    private static KeywordMatcher buildIntentMatcher() {
+        KeywordMatcher m = new KeywordMatcher();
+        // Taste preferences
+        m.add(BuyerIntent.SPICY,      "spicy", "hot", "pedas", "sambal", "chili");
+        m.add(BuyerIntent.SWEET,      "sweet", "manis", "dessert", "sugar", "honey");
+        m.add(BuyerIntent.MILD,       "mild", "not spicy", "plain", "soft");
+        // Meal type
+        m.add(BuyerIntent.HEAVY_MEAL, "heavy", "full", "meal", "lunch", "dinner", "padang");
+        m.add(BuyerIntent.LIGHT,      "light", "snack", "drink", "beverage", "thirsty", "refresh");
+        // Mood/occasion
+        m.add(BuyerIntent.HUNGRY,     "hungry", "starving", "craving");
+        m.add(BuyerIntent.REFRESHING, "refresh", "cool", "hot day");
+        // Budget sensitivity
+        m.add(BuyerIntent.BUDGET,     "cheap", "affordable", "budget", "student", "promo");
+        m.add(BuyerIntent.PREMIUM,    "premium", "best", "special");
+        m.compile();
+        return m;
     }
 
     private void initializeCatalog() {
-        catalog.add(new Product("Nasi Padang", 25000.0, 20)); // Authentic Padang rice
-        catalog.add(new Product("Ayam Pop", 18000.0, 15));    // Mild fried chicken
-        catalog.add(new Product("Rendang", 22000.0, 12));     // Spicy beef
-        catalog.add(new Product("Gulai Cincang", 20000.0, 10)); // Spicy minced beef
-        catalog.add(new Product("Sambal Ijo", 5000.0, 30));   // Green chili (spicy!)
-        catalog.add(new Product("Es Teh Manis", 8000.0, 50)); // Sweet iced tea
-        catalog.add(new Product("Es Jeruk", 10000.0, 40));    // Orange juice (sweet & fresh)
-        catalog.add(new Product("Jus Alpukat", 15000.0, 25)); // Avocado juice (creamy sweet)
-        catalog.add(new Product("Es Campur", 12000.0, 20));   // Mixed ice dessert (sweet)
-        catalog.add(new Product("Kolak Pisang", 10000.0, 15)); // Sweet banana compote
+        catalog.add(new Product("Nasi Padang", Money.of(25000), 20)); // Authentic Padang rice
+        catalog.add(new Product("Ayam Pop", Money.of(18000), 15));    // Mild fried chicken
+        catalog.add(new Product("Rendang", Money.of(22000), 12));     // Spicy beef
+        catalog.add(new Product("Gulai Cincang", Money.of(20000), 10)); // Spicy minced beef
+        catalog.add(new Product("Sambal Ijo", Money.of(5000), 30));   // Green chili (spicy!)
+        catalog.add(new Product("Es Teh Manis", Money.of(8000), 50)); // Sweet iced tea
+        catalog.add(new Product("Es Jeruk", Money.of(10000), 40));    // Orange juice (sweet & fresh)
+        catalog.add(new Product("Jus Alpukat", Money.of(15000), 25)); // Avocado juice (creamy sweet)
+        catalog.add(new Product("Es Campur", Money.of(12000), 20));   // Mixed ice dessert (sweet)
+        catalog.add(new Product("Kolak Pisang", Money.of(10000), 15)); // Sweet banana compote
+    }
+
+    private static ExecutorService newSuggestionPool(int threads) {
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "ai-suggest-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Sama dengan {@link #generateResponse}, tetapi dikerjakan di pool suggestion.
+     *
+     * Future yang di-cancel sebelum worker mengambilnya tidak akan di-generate sama sekali.
+     * Callback berjalan di thread worker; pemanggil UI harus pindah sendiri ke EDT.
+     */
+    public CompletableFuture<String> generateResponseAsync(String buyerMessage, ResponseType responseType,
+                                                           int requestId) {
+        int generation = orderGeneration.get();
+        return CompletableFuture.supplyAsync(
+                () -> generateResponse(buyerMessage, responseType, requestId, generation), suggestionPool);
     }
 
     /**
@@ -69,122 +306,139 @@ public class SellerAIService {
      * @return Suggested response text (ready to send to buyer)
      */
     public String generateResponse(String buyerMessage, ResponseType responseType, int requestId) {
+        return generateResponse(buyerMessage, responseType, requestId, orderGeneration.get());
+    }
+
+    /** @param generation orderGeneration saat permintaan dibuat (bukan saat worker mulai) */
+    private String generateResponse(String buyerMessage, ResponseType responseType, int requestId, int generation) {
         if (buyerMessage == null || buyerMessage.trim().isEmpty()) {
             return "";
         }
 
-        String message = buyerMessage.toLowerCase().trim();
-        BuyerIntent intent = analyzeBuyerIntent(message);
+        String message = normalizeMessage(buyerMessage);
+
+        // Rule promo berubah -> jawaban harga di cache sudah tidak berlaku
+        if (pricingRules.reloadIfChanged()) {
+            responseCache.clear();
+        }
+
+        // Pesan yang sama sudah pernah dijawab -> pakai ulang (pending order tetap dicatat)
+        ResponseCache.Entry cached = responseCache.get(message, responseType);
+        if (cached != null) {
+            if (cached.orderProduct != null) {
+                placePendingOrder(requestId, cached.orderProduct, cached.orderQty, cached.orderPreference, generation);
+            }
+            return cached.text;
+        }
+
+        int intent = analyzeBuyerIntent(message);
+        CacheHint hint = new CacheHint();
+        String response;
 
         switch (responseType) {
             case PRODUCT_EXPLANATION:
-                return generateBuyerCentricExplanation(message, intent);
+                response = generateBuyerCentricExplanation(intent);
+                break;
 
             case PRICE_ESTIMATION:
-                return generateBuyerFriendlyPricing(message, requestId, intent);
+                response = generateBuyerFriendlyPricing(message, requestId, generation, intent, hint);
+                break;
 
             case STOCK_AVAILABILITY:
-                return generateStockWithUrgency(message, requestId, intent);
+                response = generateStockWithUrgency(message, requestId, generation, intent, hint);
+                break;
 
             default:
                 return "";
         }
+
+        if (hint.cacheable) responseCache.put(message, responseType, hint.toEntry(response));
+        return response;
+    }
+
+    /** Lowercase, trim, dan rapatkan spasi ganda -> key cache sekaligus input analisis */
+    static String normalizeMessage(String message) {
+        String lower = message.toLowerCase().trim();
+        StringBuilder sb = new StringBuilder(lower.length());
+        boolean lastSpace = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (!lastSpace) sb.append(' ');
+                lastSpace = true;
+            } else {
+                sb.append(c);
+                lastSpace = false;
+            }
+        }
+        return sb.toString();
     }
 
     /**
      * Analyze what the buyer really wants (taste profile, mood, occasion)
+     * Semua keyword di-match sekaligus dalam satu scan oleh INTENT_MATCHER.
+     *
+     * @return bitmask BuyerIntent
      */
-    private BuyerIntent analyzeBuyerIntent(String message) {
-        BuyerIntent intent = new BuyerIntent();
-        
-        // Detect taste preferences
-        if (message.contains("spicy") || message.contains("hot") || message.contains("pedas") || 
-            message.contains("sambal") || message.contains("chili")) {
-            intent.spicy = true;
-            intent.preference = "spicy";
-        }
-        if (message.contains("sweet") || message.contains("manis") || message.contains("dessert") || 
-            message.contains("sugar") || message.contains("honey")) {
-            intent.sweet = true;
-            intent.preference = "sweet";
-        }
-        if (message.contains("mild") || message.contains("not spicy") || message.contains("plain") ||
-            message.contains("soft")) {
-            intent.mild = true;
-            intent.preference = "mild";
-        }
-        
-        // Detect meal type
-        if (message.contains("heavy") || message.contains("full") || message.contains("meal") || 
-            message.contains("lunch") || message.contains("dinner") || message.contains("padang")) {
-            intent.heavyMeal = true;
-        }
-        if (message.contains("light") || message.contains("snack") || message.contains("drink") || 
-            message.contains("beverage") || message.contains("thirsty") || message.contains("refresh")) {
-            intent.lightRefreshment = true;
-        }
-        
-        // Detect mood/occasion
-        if (message.contains("hungry") || message.contains("starving") || message.contains("craving")) {
-            intent.hungry = true;
-        }
-        if (message.contains("refresh") || message.contains("cool") || message.contains("hot day")) {
-            intent.refreshing = true;
-        }
-        
-        // Detect budget sensitivity
-        if (message.contains("cheap") || message.contains("affordable") || message.contains("budget") || 
-            message.contains("student") || message.contains("promo")) {
-            intent.budgetConscious = true;
-        }
-        if (message.contains("premium") || message.contains("best") || message.contains("special")) {
-            intent.premium = true;
-        }
-        
-        return intent;
+    private int analyzeBuyerIntent(String message) {
+        return INTENT_MATCHER.match(message);
     }
 
     /**
      * Generate explanation focused on buyer's satisfaction and experience
+     * Cukup satu lookup tabel; urutan prioritas ada di explainIntent().
      */
-    private String generateBuyerCentricExplanation(String message, BuyerIntent intent) {
+    private String generateBuyerCentricExplanation(int intent) {
+        return EXPLANATIONS[intent & (BuyerIntent.COMBINATIONS - 1)];
+    }
+
+    private static String[] buildExplanationTable() {
+        String[] table = new String[BuyerIntent.COMBINATIONS];
+        for (int mask = 0; mask < table.length; mask++) {
+            table[mask] = explainIntent(mask);
+        }
+        return table;
+    }
+
+    /** Rantai prioritas penjelasan (hanya dipakai untuk mengisi EXPLANATIONS) */
+    private static String explainIntent(int intent) {
         // If buyer wants SPICY + HEAVY MEAL
-        if (intent.spicy && intent.heavyMeal) {
+        if (BuyerIntent.has(intent, BuyerIntent.SPICY | BuyerIntent.HEAVY_MEAL)) {
             return "Perfect choice for spice lovers! Our Nasi Padang comes with authentic Rendang (slow-cooked spicy beef) and Sambal Ijo that will satisfy your cravings. The rich coconut curry with green chilies gives you that addictive heat that keeps you coming back. Want extra sambal on the side?";
         }
         
         // If buyer wants SPICY only
-        if (intent.spicy) {
+        if (BuyerIntent.has(intent, BuyerIntent.SPICY)) {
             return "Love the heat? You've got to try our Gulai Cincang with extra Sambal Ijo! The green chili sambal is freshly ground daily - spicy, tangy, and incredibly aromatic. Perfect for drizzling over rice or dipping. How spicy do you want it?";
         }
         
         // If buyer wants SWEET + REFRESHMENT
-        if (intent.sweet && intent.lightRefreshment) {
+        if (BuyerIntent.has(intent, BuyerIntent.SWEET | BuyerIntent.LIGHT)) {
             return "Looking for something sweet and refreshing? Our Es Campur is a crowd favorite - mixed fruits, jelly, and coconut milk over crushed ice. Or try our Jus Alpukat for creamy sweetness that cools you down instantly. Perfect for this weather!";
         }
         
         // If buyer wants SWEET only
-        if (intent.sweet) {
+        if (BuyerIntent.has(intent, BuyerIntent.SWEET)) {
             return "Sweet tooth calling? Our Kolak Pisang (warm banana in palm sugar coconut milk) is comfort in a bowl, or go for Es Campur if you want something icy sweet with various textures. Both are made with less sugar so you taste the natural sweetness!";
         }
         
         // If buyer wants MILD/Not spicy
-        if (intent.mild) {
+        if (BuyerIntent.has(intent, BuyerIntent.MILD)) {
             return "Prefer milder flavors? Our Ayam Pop is perfect - tender fried chicken that's savory but not spicy, served with light broth. Pair it with plain rice and skip the sambal. Comfort food without the burn!";
         }
         
         // If buyer is HUNGRY (big portion)
-        if (intent.hungry && intent.heavyMeal) {
+        if (BuyerIntent.has(intent, BuyerIntent.HUNGRY | BuyerIntent.HEAVY_MEAL)) {
             return "Hungry? Our Nasi Padang is generous! You get rice + 2 side dishes of your choice (Rendang, Ayam Pop, or Gulai). The portions are big enough to keep you full for hours. Add an extra rice if you're really starving!";
         }
         
         // If buyer wants DRINKS only
-        if (intent.lightRefreshment && !intent.heavyMeal) {
+        if (BuyerIntent.has(intent, BuyerIntent.LIGHT) && !BuyerIntent.has(intent, BuyerIntent.HEAVY_MEAL)) {
             return "Thirsty? Our Es Teh Manis is brewed fresh (not too sweet), or upgrade to Es Jeruk for fresh-squeezed orange juice. For something indulgent, the Jus Alpukat is creamy and filling - almost like a meal itself!";
         }
         
         // If buyer mentions BUDGET
-        if (intent.budgetConscious) {
+        if (BuyerIntent.has(intent, BuyerIntent.BUDGET)) {
             return "Great news! We have budget-friendly options starting from just Rp 8,000. Nasi Padang with one side dish is Rp 25,000 and very filling. Or grab Es Teh Manis + light snack for under Rp 20,000 total. Good food doesn't have to break the bank!";
         }
         
@@ -195,60 +449,69 @@ public class SellerAIService {
     /**
      * Generate pricing that emphasizes value and options for buyer
      */
-    private String generateBuyerFriendlyPricing(String message, int requestId, BuyerIntent intent) {
+    private String generateBuyerFriendlyPricing(String message, int requestId, int generation, int intent,
+                                                CacheHint hint) {
         Product p = detectProduct(message);
         int qty = extractQuantity(message);
         
         if (p != null) {
+            // "0 rendang": tidak ada yang bisa ditawarkan / di-hold
+            if (qty <= 0) {
+                return "How many " + p.getName() + " would you like? Just tell me the number of portions and I'll prepare an offer!";
+            }
+
             // Check stock first
-            if (qty > p.getStock()) {
-                return "I'd love to fulfill that, but I only have " + p.getStock() + " " + p.getName() + " left right now. How about " + p.getStock() + " instead? Or I can suggest alternatives that are fully stocked!";
+            int stock = p.getStock();
+            if (qty > stock) {
+                hint.dependsOnStock(p, stock, stock);
+                return "I'd love to fulfill that, but I only have " + stock + " " + p.getName() + " left right now. How about " + stock + " instead? Or I can suggest alternatives that are fully stocked!";
             }
+            hint.dependsOnStock(p, qty, Integer.MAX_VALUE); // penawaran valid selama stok cukup
 
-            double unitPrice = p.getPrice();
-            double subtotal = unitPrice * qty;
-            double discount = 0;
-            double total = subtotal;
+            Money unitPrice = p.getPrice();
+            Money subtotal = unitPrice.times(qty);
+            Money discount = Money.ZERO;
+            Money total = subtotal;
             String specialNote = "";
 
-            // Student/Budget deal
-            if (intent.budgetConscious && qty >= 2) {
-                discount = subtotal * 0.15; // 15% off for budget buyers buying multiple
-                total = subtotal - discount;
-                specialNote = "Student/Budget Bundle applied! ";
-            }
-            // Regular bulk discount
-            else if (qty >= 5) {
-                discount = subtotal * 0.10;
-                total = subtotal - discount;
-                specialNote = "Group order discount applied! ";
-            }
-            // Sweet combo deal
-            else if (intent.sweet && intent.heavyMeal) {
-                specialNote = "Sweet & Savory Combo: Add Es Campur for only Rp 8,000 more (save Rp 4,000)! ";
+            // Promo (budget bundle, group order, combo, ...) dari pricing-rules.txt
+            PricingRule rule = pricingRules.evaluate(intent, ProductIndex.normalize(p.getName()), qty);
+            if (rule != null) {
+                if (rule.getDiscountPercent() > 0) {
+                    discount = subtotal.percent(rule.getDiscountPercent());
+                    total = subtotal.minus(discount);
+                }
+                specialNote = rule.getNote();
             }
 
             // Store context
-            pendingOrders.put(requestId, new PendingOrder(p, qty, intent.preference));
+            placePendingOrder(requestId, p, qty, BuyerIntent.preferenceOf(intent), generation);
+            hint.recordsOrder(p, qty, BuyerIntent.preferenceOf(intent));
 
             StringBuilder sb = new StringBuilder();
             sb.append("Here's your personalized offer:\n\n");
             sb.append("🍽️ ").append(qty).append("x ").append(p.getName()).append("\n");
-            sb.append("💰 Rp ").append(String.format("%,.0f", unitPrice)).append(" each\n");
-            sb.append("Subtotal: Rp ").append(String.format("%,.0f", subtotal)).append("\n");
+            sb.append("💰 ");
+            unitPrice.appendRupiah(sb, PRICE_GROUPING).append(" each\n");
+            sb.append("Subtotal: ");
+            subtotal.appendRupiah(sb, PRICE_GROUPING).append("\n");
             
-            if (discount > 0) {
-                sb.append("🎉 Discount: -Rp ").append(String.format("%,.0f", discount)).append("\n");
+            if (discount.isPositive()) {
+                sb.append("🎉 Discount: -");
+                discount.appendRupiah(sb, PRICE_GROUPING).append("\n");
             }
-            sb.append("✨ Total: Rp ").append(String.format("%,.0f", total)).append("\n\n");
+            sb.append("✨ Total: ");
+            total.appendRupiah(sb, PRICE_GROUPING).append("\n\n");
             
             if (!specialNote.isEmpty()) {
                 sb.append("💡 ").append(specialNote).append("\n");
             }
             
             // Add value context
-            if (intent.budgetConscious) {
-                sb.append("That's only Rp ").append(String.format("%,.0f", total/qty)).append(" per person - great value for authentic taste!");
+            if (BuyerIntent.has(intent, BuyerIntent.BUDGET)) {
+                sb.append("That's only ");
+                (qty > 0 ? total.dividedBy(qty) : total).appendRupiah(sb, PRICE_GROUPING)
+                        .append(" per person - great value for authentic taste!");
             } else {
                 sb.append("Ready to confirm? I can prepare this immediately!");
             }
@@ -257,14 +520,14 @@ public class SellerAIService {
         }
 
         // If no specific product detected, offer curated options based on intent
-        if (intent.spicy) {
+        if (BuyerIntent.has(intent, BuyerIntent.SPICY)) {
             return "Spicy cravings? Here are your options:\n" +
                    "• Nasi Padang + Rendang: Rp 25,000 (the full experience)\n" +
                    "• Gulai Cincang only: Rp 20,000 (for the spice lovers)\n" +
                    "• Extra Sambal Ijo: Rp 5,000 (add to anything!)\n\n" +
                    "Which one calls to you?";
         }
-        if (intent.sweet) {
+        if (BuyerIntent.has(intent, BuyerIntent.SWEET)) {
             return "Sweet treats menu:\n" +
                    "• Es Campur: Rp 12,000 (mixed fruits & jelly)\n" +
                    "• Jus Alpukat: Rp 15,000 (creamy avocado)\n" +
@@ -278,21 +541,33 @@ public class SellerAIService {
     /**
      * Generate stock info with buyer-friendly urgency and alternatives
      */
-    private String generateStockWithUrgency(String message, int requestId, BuyerIntent intent) {
+    private String generateStockWithUrgency(String message, int requestId, int generation, int intent,
+                                            CacheHint hint) {
         // Handle confirmation first
         if (message.contains("yes") || message.contains("confirm") || message.contains("ok") || 
             message.contains("deal") || message.contains("sure")) {
-            if (pendingOrders.containsKey(requestId)) {
-                PendingOrder order = pendingOrders.get(requestId);
-                
-                if (order.quantity > order.product.getStock()) {
+            hint.cacheable = false; // bergantung pada pending order request ini
+            // Ambil order dari map = klaim atomik (tidak bentrok dengan expiry).
+            // Order dari generasi lain milik request lama / baru dengan id yang sama -> bukan milik kita
+            PendingOrder order = pendingOrders.get(requestId);
+            if (order != null && (order.generation != generation || !pendingOrders.remove(requestId, order))) {
+                order = null;
+            }
+            if (order != null) {
+                // Seller belum mengirim penawarannya (belum di-hold): cek + reserve stok dalam satu operasi atomik
+                if (!order.close() && !order.product.reserve(order.quantity)) {
+                    // Tetap pending sampai TTL; kalau TTL-nya barusan lewat, buang saja
+                    order.reopen();
+                    pendingOrders.putIfAbsent(requestId, order);
+                    if (!order.expiry.isPending() && pendingOrders.remove(requestId, order)) cancelOrder(order);
+                    int left = order.product.getStock();
                     return "Oh no! Someone just grabbed the last portions while we were chatting. I only have " + 
-                           order.product.getStock() + " " + order.product.getName() + " left now. " +
-                           "Should I reserve those " + order.product.getStock() + " for you instead?";
+                           left + " " + order.product.getName() + " left now. " +
+                           "Should I reserve those " + left + " for you instead?";
                 }
 
-                order.product.deductStock(order.quantity);
-                pendingOrders.remove(requestId);
+                order.expiry.cancel();
+                order.product.commit(order.quantity);
                 
                 return "✅ Confirmed! I've reserved " + order.quantity + " " + order.product.getName() + 
                        " just for you. Your order is being prepared now! " +
@@ -306,6 +581,7 @@ public class SellerAIService {
         Product p = detectProduct(message);
         if (p != null) {
             int stock = p.getStock();
+            hint.dependsOnStock(p, stock, stock); // teks menyebut jumlah stok
             
             if (stock == 0) {
                 // Suggest alternative
@@ -313,9 +589,15 @@ public class SellerAIService {
                 return "Ah, " + p.getName() + " just sold out! " + alternative;
             }
             else if (stock <= 3) {
-                pendingOrders.put(requestId, new PendingOrder(p, extractQuantity(message), intent.preference));
+                int qty = extractQuantity(message);
+                if (qty <= 0) {
+                    return "⚡ Only " + stock + " " + p.getName() + " left! They're going fast today. " +
+                           "How many should I reserve for you?";
+                }
+                placePendingOrder(requestId, p, qty, BuyerIntent.preferenceOf(intent), generation);
+                hint.recordsOrder(p, qty, BuyerIntent.preferenceOf(intent));
                 return "⚡ Only " + stock + " " + p.getName() + " left! They're going fast today. " +
-                       "Want me to reserve " + (extractQuantity(message) > stock ? stock : extractQuantity(message)) + 
+                       "Want me to reserve " + (qty > stock ? stock : qty) + 
                        " for you before someone else grabs them?";
             }
             else if (stock <= 10) {
@@ -336,67 +618,167 @@ public class SellerAIService {
     /**
      * Suggest alternative when item is out of stock
      */
-    private String suggestAlternative(Product outOfStock, BuyerIntent intent) {
+    private String suggestAlternative(Product outOfStock, int intent) {
         if (outOfStock.getName().toLowerCase().contains("rendang")) {
             return "But our Gulai Cincang is equally spicy and flavorful, or try Ayam Pop for something milder. Both are available!";
         }
         if (outOfStock.getName().toLowerCase().contains("padang")) {
             return "But I can make you a custom plate with Ayam Pop + Gulai + Rice for Rp 23,000. Same satisfaction!";
         }
-        if (intent.sweet) {
+        if (BuyerIntent.has(intent, BuyerIntent.SWEET)) {
             return "But our Es Campur is just as sweet and refreshing, and we have plenty!";
         }
         return "But I have other delicious options available. What else interests you?";
     }
 
     // Helper methods
-    private Product detectProduct(String message) {
-        for (Product p : catalog) {
-            if (message.contains(p.getName().toLowerCase())) {
-                return p;
-            }
+
+    /**
+     * Simpan draft penawaran untuk request ini selama TTL, belum menahan stok
+     * (lihat {@link #holdPendingOrder}). Penawaran lama untuk request yang sama
+     * dilepas lebih dulu.
+     *
+     * Quantity <= 0 ditolak (tidak akan pernah bisa di-reserve / dikonfirmasi),
+     * begitu juga generate dari sebelum {@link #releaseAllPendingOrders()}.
+     *
+     * @return false jika penawaran tidak disimpan
+     */
+    private boolean placePendingOrder(int requestId, Product p, int qty, String preference, int generation) {
+        if (qty <= 0 || generation != orderGeneration.get()) return false;
+
+        PendingOrder previous = pendingOrders.remove(requestId);
+        if (previous != null) cancelOrder(previous);
+
+        PendingOrder order = new PendingOrder(requestId, p, qty, preference, generation);
+        order.expiry = orderExpiry.schedule(order, orderTtlMillis);
+
+        previous = pendingOrders.put(requestId, order);
+        if (previous != null) cancelOrder(previous); // request sama dari thread lain
+
+        // releaseAllPendingOrders() jalan bersamaan dan mungkin sudah melewati map sebelum put di atas
+        if (generation != orderGeneration.get()) {
+            if (pendingOrders.remove(requestId, order)) cancelOrder(order);
+            return false;
         }
-        return null;
+        return true;
+    }
+
+    private void cancelOrder(PendingOrder order) {
+        order.expiry.cancel();
+        if (order.close()) order.product.release(order.quantity);
+    }
+
+    /** Callback timing wheel: lepas hold stok lalu kabari listener */
+    private void expireOrder(PendingOrder order) {
+        if (!pendingOrders.remove(order.requestId, order)) return; // sudah dikonfirmasi/diganti
+        if (order.close()) order.product.release(order.quantity);
+
+        PendingOrderListener l = pendingOrderListener;
+        if (l != null) l.onOrderExpired(order.requestId, order.product.getName(), order.quantity);
+    }
+    private Product detectProduct(String message) {
+        return productIndex.find(message);
     }
 
     private int extractQuantity(String message) {
-        Pattern pattern = Pattern.compile("\\d+");
-        Matcher matcher = pattern.matcher(message);
-        if (matcher.find()) {
-            try {
-                return Integer.parseInt(matcher.group());
-            } catch (NumberFormatException e) {
-                return 1;
-            }
-        }
-        return 1;
+        return AmountLexer.parseQuantity(message, 1);
     }
 
     /**
      * Generate all three responses at once for auto-fill
+     * (lewat response cache yang sama dengan generateResponse)
      */
     public String[] generateAllResponses(String buyerMessage, int requestId) {
-        BuyerIntent intent = analyzeBuyerIntent(buyerMessage.toLowerCase());
+        return generateAllResponses(buyerMessage, requestId, orderGeneration.get());
+    }
+
+    private String[] generateAllResponses(String buyerMessage, int requestId, int generation) {
         return new String[] {
-            generateBuyerCentricExplanation(buyerMessage, intent),
-            generateBuyerFriendlyPricing(buyerMessage, requestId, intent),
-            generateStockWithUrgency(buyerMessage, requestId, intent)
+            generateResponse(buyerMessage, ResponseType.PRODUCT_EXPLANATION, requestId, generation),
+            generateResponse(buyerMessage, ResponseType.PRICE_ESTIMATION, requestId, generation),
+            generateResponse(buyerMessage, ResponseType.STOCK_AVAILABILITY, requestId, generation)
         };
     }
 
     /**
-     * Inner class to capture buyer's intent and preferences
+     * Generate ketiga jawaban untuk banyak request sekaligus, paralel di fork-join pool.
+     *
+     * Tiap request tetap dikerjakan oleh satu thread (urutan explanation -> price -> stock
+     * sama dengan versi satu pesan), jadi pending order per requestId tidak saling balapan;
+     * pendingOrders, stok, dan response cache memang sudah aman dipakai banyak thread.
+     *
+     * @return requestId -> {explanation, price, stock}, urutan sama dengan {@code requests}
+     */
+    public Map<Integer, String[]> generateAllResponses(List<ChatRequest> requests) {
+        ChatRequest[] batch = requests.toArray(new ChatRequest[0]);
+        String[][] results = new String[batch.length][];
+        if (batch.length > 0) {
+            batchPool.invoke(new BatchTask(batch, results, 0, batch.length, orderGeneration.get(), null));
+        }
+        return byRequest(batch, results);
+    }
+
+    /**
+     * Sama dengan {@link #generateAllResponses(List)}, tetapi tidak memblok pemanggil:
+     * batch dikerjakan di fork-join pool dan hasilnya lewat future.
+     *
+     * Future yang di-cancel menghentikan batch: request yang belum mulai di-generate
+     * dilewati (yang sedang jalan tetap selesai), dan tidak ada hasil yang dikirim.
+     * Callback berjalan di thread fork-join; pemanggil UI harus pindah sendiri ke EDT.
      */
-    private class BuyerIntent {
-        boolean spicy = false;
-        boolean sweet = false;
-        boolean mild = false;
-        boolean heavyMeal = false;
-        boolean lightRefreshment = false;
-        boolean hungry = false;
-        boolean refreshing = false;
-        boolean budgetConscious = false;
-        boolean premium = false;
-        String preference = "general";
-    }
-}
\ No newline at end of file
+    public CompletableFuture<Map<Integer, String[]>> generateAllResponsesAsync(List<ChatRequest> requests) {
+        ChatRequest[] batch = requests.toArray(new ChatRequest[0]);
+        String[][] results = new String[batch.length][];
+        CompletableFuture<Map<Integer, String[]>> future = new CompletableFuture<>();
+        BatchTask task = new BatchTask(batch, results, 0, batch.length, orderGeneration.get(), future);
+
+        batchPool.execute(() -> {
+            try {
+                if (batch.length > 0) task.invoke();
+                future.complete(byRequest(batch, results)); // no-op kalau sudah di-cancel
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private static Map<Integer, String[]> byRequest(ChatRequest[] batch, String[][] results) {
+        Map<Integer, String[]> byRequest = new LinkedHashMap<>();
+        for (int i = 0; i < batch.length; i++) {
+            byRequest.put(batch[i].getRequestId(), results[i]);
+        }
+        return byRequest;
+    }
+
+    /** Bagi dua rentang request sampai cukup kecil, lalu generate berurutan */
+    private class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ChatRequest[] batch;
+        private final String[][]    results;
+        private final int           from, to;
+        private final int           generation;
+        private final transient Future<?> owner; // null = tidak bisa di-cancel
+
+        BatchTask(ChatRequest[] batch, String[][] results, int from, int to, int generation, Future<?> owner) {
+            this.batch = batch; this.results = results; this.from = from; this.to = to;
+            this.generation = generation;
+            this.owner = owner;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    if (owner != null && owner.isCancelled()) return;
+                    results[i] = generateAllResponses(batch[i].getBuyerMessage(), batch[i].getRequestId(), generation);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchTask(batch, results, from, mid, generation, owner),
+                      new BatchTask(batch, results, mid, to, generation, owner));
+        }
+    }
+}
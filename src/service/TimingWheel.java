@@ -0,0 +1,141 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * TimingWheel - Hashed timing wheel untuk timeout murah dalam jumlah banyak
+ *
+ * Setiap timeout masuk ke salah satu slot (deadline % jumlah slot). Satu
+ * thread daemon memutar jarum tiap tick dan hanya memeriksa slot yang
+ * sedang ditunjuk, jadi schedule/cancel O(1) dan biaya per tick hanya
+ * sebanding dengan isi satu slot.
+ *
+ * @param <T> objek yang diserahkan ke handler saat timeout jatuh tempo
+ */
+public class TimingWheel<T> {
+
+    /** Handle untuk membatalkan timeout yang belum jatuh tempo */
+    public final class Timeout {
+        private final T item;
+        private long    rounds;   // putaran penuh yang masih harus dilewati
+        private int     slot = -1;
+        private Timeout prev, next;
+
+        private Timeout(T item) {
+            this.item = item;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        /** @return true selama belum jatuh tempo dan belum dibatalkan */
+        public boolean isPending() {
+            synchronized (TimingWheel.this) {
+                return slot >= 0;
+            }
+        }
+
+        /** @return true jika berhasil dibatalkan sebelum jatuh tempo */
+        public boolean cancel() {
+            synchronized (TimingWheel.this) {
+                if (slot < 0) return false;
+                unlink(this);
+                return true;
+            }
+        }
+    }
+
+    private final long      tickMillis;
+    private final Timeout[] wheel;          // head linked list per slot
+    private final Consumer<T> onExpire;
+    private final ScheduledExecutorService ticker;
+
+    private long tick = 0;                  // tick yang terakhir diproses
+    private int  size = 0;
+
+    public TimingWheel(String name, long tickMillis, int slots, Consumer<T> onExpire) {
+        if (tickMillis <= 0 || slots <= 0) throw new IllegalArgumentException("tick dan slot harus > 0");
+        this.tickMillis = tickMillis;
+        this.wheel      = createWheel(slots);
+        this.onExpire   = onExpire;
+        this.ticker     = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Jadwalkan {@code item} untuk kedaluwarsa setelah {@code delayMillis}. */
+    public Timeout schedule(T item, long delayMillis) {
+        Timeout t = new Timeout(item);
+        long ticks = Math.max(1, (delayMillis + tickMillis - 1) / tickMillis);
+        synchronized (this) {
+            long deadline = tick + ticks;
+            t.rounds = (ticks - 1) / wheel.length;
+            t.slot   = (int) (deadline % wheel.length);
+            t.next   = wheel[t.slot];
+            if (t.next != null) t.next.prev = t;
+            wheel[t.slot] = t;
+            size++;
+        }
+        return t;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /** Satu tick jarum: kumpulkan yang jatuh tempo, panggil handler di luar lock. */
+    void advance() {
+        List<T> expired = null;
+        synchronized (this) {
+            tick++;
+            int slot = (int) (tick % wheel.length);
+            Timeout t = wheel[slot];
+            while (t != null) {
+                Timeout next = t.next;
+                if (t.rounds <= 0) {
+                    unlink(t);
+                    if (expired == null) expired = new ArrayList<>();
+                    expired.add(t.item);
+                } else {
+                    t.rounds--;
+                }
+                t = next;
+            }
+        }
+        if (expired == null) return;
+        for (T item : expired) {
+            try {
+                onExpire.accept(item);
+            } catch (RuntimeException e) {
+                e.printStackTrace(); // jangan sampai thread ticker mati
+            }
+        }
+    }
+
+    private void unlink(Timeout t) {
+        if (t.prev != null) t.prev.next = t.next;
+        else wheel[t.slot] = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = t.next = null;
+        t.slot = -1;
+        size--;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Timeout[] createWheel(int slots) {
+        return (Timeout[]) java.lang.reflect.Array.newInstance(Timeout.class, slots);
+    }
+}
@@ -1,10 +1,10 @@
 package ui;
 
 import java.awt.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javax.swing.*;
 import javax.swing.border.AbstractBorder;
+import model.Money;
+import service.AmountLexer;
 
 public class Bubble extends JPanel {
 
@@ -27,9 +27,11 @@ public class Bubble extends JPanel {
     private static final Color COLOR_SELLER  = new Color(232, 245, 233);
     private static final Color COLOR_BORDER  = new Color(230, 230, 230);
 
+    private static final Money RUPIAH_THRESHOLD = Money.of(1000);
+
     // Quantity & price state (SELLER bubble only)
     private int     quantity  = 1;
-    private double  unitPrice = 0.0;
+    private Money   unitPrice = Money.ZERO;
     private JLabel  qtyLabel;
     private JLabel  priceLabel;   // shows updated price below stepper
 
@@ -50,49 +52,19 @@ public class Bubble extends JPanel {
     //  Parse harga dari teks pesan seller
     //  Mendeteksi: "Rp 15.000", "15k", "15rb", "$5.00"
     // ──────────────────────────────────────────────────────────
-    private double parsePrice(String msg) {
-        if (msg == null) return 0;
-        String m = msg.toLowerCase();
-
-        // "Rp 15.000" atau "Rp15000"
-        Matcher rp = Pattern.compile("(?i)rp\\.?\\s*([\\d.,]+)").matcher(m);
-        if (rp.find()) {
-            String raw = rp.group(1).replace(".", "").replace(",", "");
-            try { return Double.parseDouble(raw); } catch (NumberFormatException ignored) {}
-        }
-
-        // "15k" atau "15rb"
-        Matcher k = Pattern.compile("(\\d+(?:[.,]\\d+)?)\\s*(?:k|rb|ribu)").matcher(m);
-        if (k.find()) {
-            String raw = k.group(1).replace(",", ".");
-            try { return Double.parseDouble(raw) * 1000; } catch (NumberFormatException ignored) {}
-        }
-
-        // "$5.00"
-        Matcher dollar = Pattern.compile("\\$\\s*([\\d,]+\\.?\\d*)").matcher(m);
-        if (dollar.find()) {
-            String raw = dollar.group(1).replace(",", "");
-            try { return Double.parseDouble(raw); } catch (NumberFormatException ignored) {}
-        }
-
-        return 0;
+    private Money parsePrice(String msg) {
+        return Money.ofMinor(AmountLexer.parsePriceMinor(msg));
     }
 
-    private String formatPrice(double amount) {
-        if (unitPrice >= 1000) {
-            // Format Rupiah: Rp 15.000
-            long val = Math.round(amount);
-            String raw = String.valueOf(val);
-            StringBuilder sb = new StringBuilder();
-            int start = raw.length() % 3;
-            if (start > 0) sb.append(raw, 0, start);
-            for (int i = start; i < raw.length(); i += 3) {
-                if (sb.length() > 0) sb.append(".");
-                sb.append(raw, i, i + 3);
-            }
-            return "Rp " + sb.toString();
+    /** Rupiah kalau harganya >= 1.000, selain itu dianggap dolar */
+    private String formatTotalLabel(Money amount) {
+        StringBuilder sb = new StringBuilder(24).append("Total: ");
+        if (unitPrice.compareTo(RUPIAH_THRESHOLD) >= 0) {
+            amount.appendRupiah(sb);
+        } else {
+            amount.appendDollars(sb);
         }
-        return String.format("$%.2f", amount);
+        return sb.toString();
     }
 
     // ──────────────────────────────────────────────────────────
@@ -154,8 +126,8 @@ public class Bubble extends JPanel {
         wrapper.setLayout(new BoxLayout(wrapper, BoxLayout.Y_AXIS));
 
         // ── Harga total (muncul hanya jika ada harga yang terdeteksi) ──
-        if (unitPrice > 0) {
-            priceLabel = new JLabel("Total: " + formatPrice(unitPrice));
+        if (unitPrice.isPositive()) {
+            priceLabel = new JLabel(formatTotalLabel(unitPrice));
             priceLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
             priceLabel.setForeground(new Color(27, 94, 32));
             priceLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
@@ -261,8 +233,8 @@ public class Bubble extends JPanel {
     /** Perbarui tampilan qty dan total harga */
     private void refreshQty() {
         if (qtyLabel != null) qtyLabel.setText(String.valueOf(quantity));
-        if (priceLabel != null && unitPrice > 0) {
-            priceLabel.setText("Total: " + formatPrice(unitPrice * quantity));
+        if (priceLabel != null && unitPrice.isPositive()) {
+            priceLabel.setText(formatTotalLabel(unitPrice.times(quantity)));
         }
         revalidate();
         repaint();
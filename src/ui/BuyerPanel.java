@@ -1,8 +1,12 @@
 package ui;
 
+import controller.BuyerView;
 import controller.ChatController;
 import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
 import javax.swing.*;
+import model.Money;
 
 /**
  * BuyerPanel - Buyer Chat (left panel)
@@ -11,13 +15,21 @@ import javax.swing.*;
  * - replaceSpecificWaitingBubble selalu meng-set controller pada seller bubble
  *   agar tombol [ - ] qty [ + ] dan [ Choose ] bisa berkomunikasi ke controller
  */
-public class BuyerPanel extends JPanel {
+public class BuyerPanel extends JPanel implements BuyerView {
     private JTextField     messageField;
     private JTextField     addressField;   // ← alamat pengiriman buyer
     private CircularButton sendButton;
     private JPanel         chatArea;
     private ChatController controller;
 
+    // Ringkasan pesanan: dibuat sekali, baris di-update per Choose (key = requestId << 32 | formIndex)
+    private static final Color SUMMARY_BG = new Color(197, 202, 233);
+    private JPanel    summaryPanel;
+    private JPanel    summaryLinesPanel;
+    private JTextArea summaryHeader;
+    private JTextArea summaryFooter;
+    private Map<Long, JTextArea> summaryLines = new HashMap<>();
+
     public BuyerPanel() {
         initComponents();
     }
@@ -106,11 +118,13 @@ public class BuyerPanel extends JPanel {
         }
     }
 
+    @Override
     public void setController(ChatController controller) {
         this.controller = controller;
     }
 
     /** Ambil alamat yang diisi buyer, return string kosong jika belum diisi */
+    @Override
     public String getAddress() {
         String addr = addressField.getText().trim();
         return addr.isEmpty() ? "" : addr;
@@ -120,12 +134,14 @@ public class BuyerPanel extends JPanel {
     //  Display methods
     // ──────────────────────────────────────────────────────────
 
+    @Override
     public void displayBuyerMessage(String message) {
         Bubble b = new Bubble(message, Bubble.BubbleType.BUYER);
         chatArea.add(b);
         refresh();
     }
 
+    @Override
     public void displayWaitingMessage(String requestLabel, int requestId, int formIndex) {
         String msg = "⏳ Waiting for seller data "
                 + requestLabel.substring(requestLabel.lastIndexOf('-') + 1) + "...";
@@ -147,6 +163,7 @@ public class BuyerPanel extends JPanel {
      * Ganti waiting bubble dengan seller bubble yang sudah punya
      * stepper [ - ] qty [ + ] dan tombol [ Choose ]
      */
+    @Override
     public void replaceSpecificWaitingBubble(int requestId, int formIndex, String response) {
         for (int i = 0; i < chatArea.getComponentCount(); i++) {
             Component comp = chatArea.getComponent(i);
@@ -172,34 +189,66 @@ public class BuyerPanel extends JPanel {
     }
 
     /**
-     * Tampilkan ringkasan pesanan (lavender bubble + tombol Confirm)
-     * Selalu replace panel SUMMARY_PANEL yang lama agar tidak numpuk.
+     * Update ringkasan pesanan (lavender bubble + tombol Confirm).
+     * Panel dibuat sekali; tiap Choose hanya mengganti teks satu baris dan
+     * total, lalu panel dipindah ke bawah chat kalau sudah ada bubble baru.
      */
-    public void displayBuyerSummary(String message) {
-        // Hapus panel summary lama
-        for (int i = chatArea.getComponentCount() - 1; i >= 0; i--) {
-            Component c = chatArea.getComponent(i);
-            if (c instanceof JPanel && "SUMMARY_PANEL".equals(((JPanel) c).getName())) {
-                chatArea.remove(i);
-            }
+    @Override
+    public void updateCartLine(int requestId, int formIndex, String lineText, Money grandTotal) {
+        if (summaryPanel == null) createSummaryPanel();
+
+        long key = ((long) requestId << 32) | formIndex;
+        JTextArea line = summaryLines.get(key);
+        if (line == null) {
+            line = createSummaryArea(lineText + "\n");
+            summaryLines.put(key, line);
+            summaryLinesPanel.add(line);
+        } else {
+            line.setText(lineText + "\n");
+        }
+
+        String address = getAddress();
+        summaryHeader.setText("\uD83E\uDDFE Ringkasan Pesanan Buyer\n--------------------------\n"
+                + (address.isEmpty() ? "" : "\n\uD83D\uDCCD Alamat: " + address + "\n"));
+
+        StringBuilder footer = new StringBuilder("--------------------------\n");
+        if (grandTotal != null) grandTotal.appendRupiah(footer.append("Grand Total: ")).append("\n\n");
+        footer.append("Silakan konfirmasi pesanan Anda \uD83D\uDE0A");
+        summaryFooter.setText(footer.toString());
+
+        // Selalu tampil di bawah bubble terakhir
+        int n = chatArea.getComponentCount();
+        if (n == 0 || chatArea.getComponent(n - 1) != summaryPanel) {
+            chatArea.remove(summaryPanel);
+            chatArea.add(summaryPanel);
         }
+        summaryLinesPanel.revalidate();
+        refresh();
+    }
 
-        JPanel summaryPanel = new JPanel();
+    private void createSummaryPanel() {
+        summaryPanel = new JPanel();
         summaryPanel.setName("SUMMARY_PANEL");
         summaryPanel.setLayout(new BoxLayout(summaryPanel, BoxLayout.Y_AXIS));
         summaryPanel.setOpaque(false);
         summaryPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
-        JTextArea area = new JTextArea(message);
-        area.setWrapStyleWord(true);
-        area.setLineWrap(true);
-        area.setEditable(false);
-        area.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 14));
-        area.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
-        area.setBackground(new Color(197, 202, 233));
-        area.setForeground(new Color(40, 53, 147));
-        area.setMaximumSize(new Dimension(400, Integer.MAX_VALUE));
-        area.setAlignmentX(Component.CENTER_ALIGNMENT);
+        // Lavender bubble: header, satu JTextArea per baris keranjang, footer (total)
+        JPanel bubble = new JPanel();
+        bubble.setLayout(new BoxLayout(bubble, BoxLayout.Y_AXIS));
+        bubble.setBackground(SUMMARY_BG);
+        bubble.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
+        bubble.setMaximumSize(new Dimension(400, Integer.MAX_VALUE));
+        bubble.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        summaryHeader     = createSummaryArea("");
+        summaryFooter     = createSummaryArea("");
+        summaryLinesPanel = new JPanel();
+        summaryLinesPanel.setLayout(new BoxLayout(summaryLinesPanel, BoxLayout.Y_AXIS));
+        summaryLinesPanel.setOpaque(false);
+        bubble.add(summaryHeader);
+        bubble.add(summaryLinesPanel);
+        bubble.add(summaryFooter);
 
         Color lavBlue = new Color(121, 134, 203);
         JButton confirmBtn = new JButton("Confirm Purchase");
@@ -222,12 +271,21 @@ public class BuyerPanel extends JPanel {
                 JOptionPane.showMessageDialog(this, "Purchase Confirmed!", "Success",
                         JOptionPane.INFORMATION_MESSAGE));
 
-        summaryPanel.add(area);
+        summaryPanel.add(bubble);
         summaryPanel.add(Box.createRigidArea(new Dimension(0, 10)));
         summaryPanel.add(confirmBtn);
+    }
 
-        chatArea.add(summaryPanel);
-        refresh();
+    private JTextArea createSummaryArea(String text) {
+        JTextArea area = new JTextArea(text);
+        area.setWrapStyleWord(true);
+        area.setLineWrap(true);
+        area.setEditable(false);
+        area.setOpaque(false);
+        area.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 14));
+        area.setForeground(new Color(40, 53, 147));
+        area.setAlignmentX(Component.LEFT_ALIGNMENT);
+        return area;
     }
 
     public void showQuickOptions(String[] options) {
@@ -287,8 +345,11 @@ public class BuyerPanel extends JPanel {
         });
     }
 
+    @Override
     public void clearChat() {
         chatArea.removeAll();
+        summaryPanel = null;
+        summaryLines.clear();
         addressField.setText("");
         refresh();
     }
@@ -19,6 +19,10 @@ public class RequestPanel extends JPanel {
     private JTextArea form1Field;
     private JTextArea form2Field;
     private JTextArea form3Field;
+    private CircularButton[] aiButtons = new CircularButton[4]; // index = formIndex
+
+    private static final Color FORM_BG      = new Color(245, 255, 245);
+    private static final Color FORM_BUSY_BG = new Color(238, 238, 238);
 
     public RequestPanel(ChatRequest request, ChatController controller, int sellerIndex) {
         this.request     = request;
@@ -87,7 +91,7 @@ public class RequestPanel extends JPanel {
 
         JTextArea ta = new JTextArea();
         ta.setFont(new Font("Segoe UI", Font.PLAIN, 13));
-        ta.setBackground(new Color(245, 255, 245));
+        ta.setBackground(FORM_BG);
         ta.setLineWrap(true);
         ta.setWrapStyleWord(true);
         ta.setBorder(BorderFactory.createEmptyBorder(6, 12, 6, 12));
@@ -110,6 +114,7 @@ public class RequestPanel extends JPanel {
         CircularButton ai = new CircularButton("AI", new Color(103, 58, 183), 32);
         ai.setToolTipText("AI Suggestion");
         ai.addActionListener(e -> controller.onAISuggestRequested(request.getRequestId(), formIndex, sellerIndex));
+        aiButtons[formIndex] = ai;
         bp.add(ai);
 
         // Submit button — teruskan sellerIndex
@@ -135,6 +140,19 @@ public class RequestPanel extends JPanel {
         if (ta != null) ta.setText(value);
     }
 
+    /** Selama AI menyiapkan jawaban: form read-only, abu-abu, tombol AI jadi "..." */
+    public void setFormBusy(int fi, boolean busy) {
+        JTextArea ta = fi == 1 ? form1Field : fi == 2 ? form2Field : form3Field;
+        if (ta == null) return;
+        ta.setEditable(!busy);
+        ta.setBackground(busy ? FORM_BUSY_BG : FORM_BG);
+        ta.setCursor(Cursor.getPredefinedCursor(busy ? Cursor.WAIT_CURSOR : Cursor.TEXT_CURSOR));
+
+        CircularButton ai = aiButtons[fi];
+        ai.setText(busy ? "..." : "AI");
+        ai.setToolTipText(busy ? "AI sedang menyiapkan jawaban..." : "AI Suggestion");
+    }
+
     public ChatRequest getRequest() { return request; }
 
     public void updateRequest(ChatRequest r) {
@@ -1,6 +1,7 @@
 package ui;
 
 import controller.ChatController;
+import controller.SellerView;
 import java.awt.*;
 import java.util.HashMap;
 import java.util.Map;
@@ -11,20 +12,21 @@ import model.ChatRequest;
  * SellerPanel - Dashboard untuk 1 seller
  *
  * PERUBAHAN:
- * - Punya sellerIndex (0, 1, 2) dan sellerName ("Seller 1", dst)
+ * - Punya sellerIndex (0, 1, 2, ...) dan sellerName ("Seller 1", dst)
+ * - Warna & ikon dibuat dari index, jadi jumlah seller tidak dibatasi
  * - Header menampilkan nama seller
  * - sellerIndex diteruskan ke RequestPanel agar form submit tahu seller mana
  */
-public class SellerPanel extends JPanel {
+public class SellerPanel extends JPanel implements SellerView {
 
     private ChatController controller;
     private JPanel         requestsContainer;
     private Map<Integer, RequestPanel> requestPanels = new HashMap<>();
 
-    private int    sellerIndex; // 0, 1, 2
-    private String sellerName;  // "Seller 1", "Seller 2", "Seller 3"
+    private int    sellerIndex; // 0, 1, 2, ...
+    private String sellerName;  // "Seller 1", "Seller 2", ...
 
-    // Warna header per seller
+    // Warna header 3 seller pertama; seller berikutnya dibuat dengan golden-ratio hue
     private static final Color[] SELLER_COLORS = {
         new Color(33, 150, 243),   // Seller 1 - Biru
         new Color(0,  150, 136),   // Seller 2 - Teal
@@ -57,8 +59,8 @@ public class SellerPanel extends JPanel {
         headerPanel.setBackground(Color.WHITE);
         headerPanel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 0, new Color(230, 230, 230)));
 
-        String icon  = sellerIndex < SELLER_ICONS.length  ? SELLER_ICONS[sellerIndex]  : "\uD83D\uDC68\u200D\uD83DDCBC";
-        Color  color = sellerIndex < SELLER_COLORS.length ? SELLER_COLORS[sellerIndex] : new Color(33, 150, 243);
+        String icon  = iconFor(sellerIndex);
+        Color  color = colorFor(sellerIndex);
 
         JLabel headerLabel = new JLabel(icon + " " + sellerName + " Dashboard");
         headerLabel.setFont(new Font("Segoe UI Emoji", Font.BOLD, 18));
@@ -80,18 +82,44 @@ public class SellerPanel extends JPanel {
         add(scrollPane, BorderLayout.CENTER);
     }
 
+    /** Warna header seller; di luar 3 warna bawaan hue disebar dengan golden ratio */
+    public static Color colorFor(int sellerIndex) {
+        if (sellerIndex >= 0 && sellerIndex < SELLER_COLORS.length) return SELLER_COLORS[sellerIndex];
+        float hue = (float) ((sellerIndex * 0.618033988749895) % 1.0);
+        return Color.getHSBColor(hue, 0.75f, 0.80f);
+    }
+
+    public static String iconFor(int sellerIndex) {
+        return SELLER_ICONS[Math.floorMod(sellerIndex, SELLER_ICONS.length)];
+    }
+
+    @Override
     public void setController(ChatController c) {
         this.controller = c;
     }
 
-    public String getSellerName()  { return sellerName; }
-    public int    getSellerIndex() { return sellerIndex; }
+    @Override public String getSellerName()  { return sellerName; }
+    @Override public int    getSellerIndex() { return sellerIndex; }
 
     public void addRequest(ChatRequest request) {
+        addRequest(request, true);
+    }
+
+    /**
+     * @param layoutNow false kalau banyak request ditambah sekaligus;
+     *                  panggil {@link #refreshLayout()} setelah yang terakhir
+     */
+    @Override
+    public void addRequest(ChatRequest request, boolean layoutNow) {
         // Teruskan sellerIndex ke RequestPanel
         RequestPanel rp = new RequestPanel(request, controller, sellerIndex);
         requestPanels.put(request.getRequestId(), rp);
         requestsContainer.add(rp);
+        if (layoutNow) refreshLayout();
+    }
+
+    @Override
+    public void refreshLayout() {
         requestsContainer.revalidate();
         requestsContainer.repaint();
         scrollToBottom();
@@ -102,15 +130,39 @@ public class SellerPanel extends JPanel {
         if (p != null) p.updateRequest(r);
     }
 
+    @Override
     public void fillFormField(int requestId, int formIndex, String value) {
         RequestPanel p = requestPanels.get(requestId);
         if (p != null) p.fillForm(formIndex, value);
     }
 
+    /** Tandai form sedang menunggu AI suggestion */
+    @Override
+    public void setFormBusy(int requestId, int formIndex, boolean busy) {
+        RequestPanel p = requestPanels.get(requestId);
+        if (p != null) p.setFormBusy(formIndex, busy);
+    }
+
     public RequestPanel getRequestPanel(int id) {
         return requestPanels.get(id);
     }
 
+    @Override
+    public boolean hasRequest(int requestId) {
+        return requestPanels.containsKey(requestId);
+    }
+
+    /** Buang panel request (mis. setelah diarsip controller) */
+    @Override
+    public void removeRequest(int requestId) {
+        RequestPanel p = requestPanels.remove(requestId);
+        if (p == null) return;
+        requestsContainer.remove(p);
+        requestsContainer.revalidate();
+        requestsContainer.repaint();
+    }
+
+    @Override
     public void clearAllRequests() {
         requestsContainer.removeAll();
         requestPanels.clear();
@@ -0,0 +1,169 @@
+package controller;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import model.Money;
+
+/**
+ * CartAllocationBenchmark - Byte yang dialokasikan per Choose buyer
+ *
+ * Dibandingkan dua keranjang dengan urutan Choose yang sama (N baris
+ * berbeda, dipilih ulang bergantian dengan qty & harga berubah):
+ *   legacy   keranjang sebelum CartStore: objek CartLine per Choose di
+ *            LinkedHashMap<Long, CartLine>, judul lewat substring + trim,
+ *            total sebagai objek Money
+ *   current  ChatController.onBuyerChoose lengkap: lookup sesi, CartStore,
+ *            render baris, publish CART_CHANGED ke event bus (tanpa panel)
+ * Jalur current mencakup lebih banyak kerja daripada legacy, jadi angkanya
+ * batas atas untuk keranjang itu sendiri. Alokasi dibaca per thread lewat
+ * com.sun.management.ThreadMXBean (HotSpot).
+ *
+ * Setelah pengukuran, isi kedua keranjang (teks baris + grand total)
+ * dibandingkan; kalau ada yang beda, exit code 1.
+ *
+ * Jalankan: java -cp bin;test-bin controller.CartAllocationBenchmark [jumlah-choose] [jumlah-baris]
+ */
+public class CartAllocationBenchmark {
+
+    private static final String SESSION = "bench-buyer";
+
+    private static final String[] REPLIES = {
+        "  Rendang sapi  \nHarga Rp 25.000 per porsi, bisa kirim sekarang",
+        "Nasi padang komplit\nAyam pop + sayur, Rp 30.000",
+        "Es teh manis\nGelas besar",
+        "Jus alpukat\nTanpa gula, Rp 18.000"
+    };
+
+    private static long sink; // supaya JIT tidak membuang hasil legacy
+
+    public static void main(String[] args) throws Exception {
+        int chooses = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int lines   = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("[CartAllocationBenchmark] JVM ini tidak mendukung getThreadAllocatedBytes");
+            System.exit(1);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        // Executor inline: event bus di-drain langsung di thread ini, tanpa thread UI
+        ChatController controller = new ChatController(Runnable::run);
+        LegacyCart legacy = new LegacyCart();
+        try {
+            // Choose hanya diterima untuk request milik sesi sendiri: buat dulu, di luar pengukuran
+            int[] requestIds = new int[(lines + 2) / 3];
+            for (int r = 0; r < requestIds.length; r++) {
+                requestIds[r] = controller.onBuyerMessageSent(SESSION, REPLIES[r % REPLIES.length]);
+            }
+
+            runLegacy(legacy, requestIds, chooses, lines);         // warm-up JIT
+            runCurrent(controller, requestIds, chooses, lines);
+
+            long a0 = threads.getThreadAllocatedBytes(thread);
+            runLegacy(legacy, requestIds, chooses, lines);
+            long legacyBytes = threads.getThreadAllocatedBytes(thread) - a0;
+
+            long b0 = threads.getThreadAllocatedBytes(thread);
+            runCurrent(controller, requestIds, chooses, lines);
+            long currentBytes = threads.getThreadAllocatedBytes(thread) - b0;
+
+            System.out.println(String.format("[CartAllocationBenchmark] %d choose, %d baris: legacy %.0f B/choose,"
+                    + " onBuyerChoose %.0f B/choose (checksum %d)", chooses, lines,
+                    (double) legacyBytes / chooses, (double) currentBytes / chooses, sink));
+
+            String error = compare(legacy, controller.getCart(SESSION));
+            if (error != null) {
+                System.err.println("[CartAllocationBenchmark] Keranjang beda: " + error);
+                System.exit(1);
+            }
+        } finally {
+            controller.shutdown();
+        }
+    }
+
+    // Choose ke-i: baris (i % lines), qty dan harga berganti supaya baris lama selalu diganti
+    private static int    requestId(int[] ids, int i, int lines) { return ids[(i % lines) / 3]; }
+    private static int    form(int i, int lines)                 { return 1 + (i % lines) % 3; }
+    private static String reply(int i)                           { return REPLIES[i % REPLIES.length]; }
+    private static int    qty(int i)                             { return 1 + i % 4; }
+    private static Money  price(int i)                           { return i % 5 == 0 ? Money.ZERO : Money.of(10_000 + (i % 7) * 1_000); }
+
+    private static void runLegacy(LegacyCart cart, int[] ids, int chooses, int lines) {
+        for (int i = 0; i < chooses; i++) {
+            LegacyCart.CartLine line = cart.put(requestId(ids, i, lines), form(i, lines), reply(i), qty(i), price(i));
+            sink += line.text.length();
+        }
+    }
+
+    private static void runCurrent(ChatController controller, int[] ids, int chooses, int lines) {
+        for (int i = 0; i < chooses; i++) {
+            controller.onBuyerChoose(SESSION, requestId(ids, i, lines), form(i, lines), reply(i), qty(i), price(i));
+        }
+    }
+
+    /** @return null kalau baris dan total sama, selain itu deskripsi beda pertama */
+    private static String compare(LegacyCart legacy, CartSnapshot current) {
+        List<LegacyCart.CartLine> expected = new ArrayList<>(legacy.lines.values());
+        if (expected.size() != current.getLines().size()) {
+            return "jumlah baris " + current.getLines().size() + " != " + expected.size();
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            String want = expected.get(i).text;
+            String got  = current.getLines().get(i).getText();
+            if (!want.equals(got)) return "baris " + i + ": \"" + got + "\" != \"" + want + "\"";
+        }
+        Money total = legacy.getTotal();
+        long wantMinor = total == null ? -1 : total.getMinorUnits();
+        if (wantMinor != current.getTotalMinor()) return "total " + current.getTotalMinor() + " != " + wantMinor;
+        return null;
+    }
+
+    /** Keranjang BuyerSession sebelum CartStore, disalin apa adanya sebagai pembanding */
+    private static final class LegacyCart {
+
+        static final class CartLine {
+            final int    quantity;
+            final Money  unitPrice;
+            final Money  subtotal;
+            final String text;
+
+            CartLine(String message, int qty, Money price) {
+                this.quantity  = qty;
+                this.unitPrice = price;
+                this.subtotal  = price.isPositive() ? price.times(qty) : Money.ZERO;
+
+                int nl = message.indexOf('\n');
+                String title = (nl < 0 ? message : message.substring(0, nl)).trim();
+                StringBuilder sb = new StringBuilder(title.length() + 32);
+                sb.append("• ").append(title).append("  x").append(qty);
+                if (price.isPositive()) subtotal.appendRupiah(sb.append("  =  "));
+                this.text = sb.toString();
+            }
+        }
+
+        final Map<Long, CartLine> lines = new LinkedHashMap<>();
+        private Money total = Money.ZERO;
+        private int   pricedLines;
+
+        CartLine put(int requestId, int formIndex, String message, int qty, Money unitPrice) {
+            CartLine line = new CartLine(message, qty, unitPrice);
+            CartLine old  = lines.put(((long) requestId << 32) | (formIndex & 0xFFFFFFFFL), line);
+            if (old != null) {
+                total = total.minus(old.subtotal);
+                if (old.unitPrice.isPositive()) pricedLines--;
+            }
+            total = total.plus(line.subtotal);
+            if (unitPrice.isPositive()) pricedLines++;
+            return line;
+        }
+
+        Money getTotal() {
+            return pricedLines > 0 ? total : null;
+        }
+    }
+}
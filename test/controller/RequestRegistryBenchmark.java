@@ -0,0 +1,135 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import model.ChatRequest;
+
+/**
+ * RequestRegistryBenchmark - Cek dan ukur RequestRegistry dengan 1 juta request
+ *
+ * 1. Operasi acak register / remove / get dibandingkan dengan HashMap biasa
+ *    (termasuk size dan isi snapshot); beda sedikit saja -> exit code 1.
+ * 2. Register N request (default 1.000.000), lalu ukur ns per get(id) acak
+ *    dibandingkan HashMap<Integer, ChatRequest> dan scan list seperti
+ *    findRequestById yang lama (scan hanya di sebagian kecil lookup karena
+ *    O(n) per panggilan).
+ *
+ * Jalankan: java -cp bin;test-bin controller.RequestRegistryBenchmark [jumlah-request]
+ */
+public class RequestRegistryBenchmark {
+
+    private static final int RANDOM_OPS    = 2_000_000;
+    private static final int RANDOM_IDS    = 50_000;
+    private static final int LOOKUP_ROUNDS = 10;
+    private static final int SCAN_LOOKUPS  = 200;
+
+    private static long sink; // supaya JIT tidak membuang hasil lookup
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        String error = checkAgainstHashMap(new Random(1));
+        if (error != null) {
+            System.err.println("[RequestRegistryBenchmark] Tidak sama dengan HashMap: " + error);
+            System.exit(1);
+        }
+        System.out.println("[RequestRegistryBenchmark] " + RANDOM_OPS + " operasi acak sama dengan HashMap");
+
+        RequestRegistry registry = new RequestRegistry();
+        Map<Integer, ChatRequest> map = new HashMap<>();
+        List<ChatRequest> list = new ArrayList<>(count);
+
+        for (int id = 1; id <= count; id++) list.add(new ChatRequest(id, "buyer-" + (id % 10), "Mau pesan rendang"));
+        long t0 = System.nanoTime();
+        for (ChatRequest r : list) registry.register(r);
+        double registerNs = (double) (System.nanoTime() - t0) / count;
+        for (ChatRequest r : list) map.put(r.getRequestId(), r);
+
+        int[] ids = new int[count];
+        Random random = new Random(2);
+        for (int i = 0; i < count; i++) ids[i] = 1 + random.nextInt(count);
+
+        timeRegistry(registry, ids);                     // warm-up JIT
+        timeMap(map, ids);
+        double registryNs = timeRegistry(registry, ids);
+        double mapNs      = timeMap(map, ids);
+        double scanNs     = timeScan(list, ids);
+
+        System.out.println(String.format("[RequestRegistryBenchmark] %d request: register %.1f ns, get %.1f ns,"
+                + " HashMap %.1f ns, scan list %.0f ns per lookup (checksum %d)",
+                count, registerNs, registryNs, mapNs, scanNs, sink));
+    }
+
+    /** @return null kalau registry selalu sama dengan HashMap, selain itu deskripsi beda pertama */
+    private static String checkAgainstHashMap(Random random) {
+        RequestRegistry registry = new RequestRegistry();
+        Map<Integer, ChatRequest> reference = new HashMap<>();
+        for (int i = 0; i < RANDOM_OPS; i++) {
+            int id = random.nextInt(RANDOM_IDS);
+            switch (random.nextInt(3)) {
+                case 0:
+                    ChatRequest r = new ChatRequest(id, "buyer", "pesan " + i);
+                    registry.register(r);
+                    reference.put(id, r);
+                    break;
+                case 1:
+                    if (registry.remove(id) != reference.remove(id)) return "remove(" + id + ") pada operasi " + i;
+                    break;
+                default:
+                    if (registry.get(id) != reference.get(id)) return "get(" + id + ") pada operasi " + i;
+                    break;
+            }
+        }
+        if (registry.size() != reference.size()) return "size " + registry.size() + " != " + reference.size();
+
+        List<ChatRequest> snapshot = registry.snapshot();
+        if (snapshot.size() != reference.size()) return "snapshot " + snapshot.size() + " != " + reference.size();
+        for (ChatRequest r : snapshot) {
+            if (reference.get(r.getRequestId()) != r) return "snapshot berisi request basi " + r.getRequestId();
+        }
+        return null;
+    }
+
+    private static double timeRegistry(RequestRegistry registry, int[] ids) {
+        long sum = 0;
+        long t0 = System.nanoTime();
+        for (int round = 0; round < LOOKUP_ROUNDS; round++) {
+            for (int id : ids) sum += registry.get(id).getRequestId();
+        }
+        long elapsed = System.nanoTime() - t0;
+        sink += sum;
+        return (double) elapsed / ((long) LOOKUP_ROUNDS * ids.length);
+    }
+
+    private static double timeMap(Map<Integer, ChatRequest> map, int[] ids) {
+        long sum = 0;
+        long t0 = System.nanoTime();
+        for (int round = 0; round < LOOKUP_ROUNDS; round++) {
+            for (int id : ids) sum += map.get(id).getRequestId();
+        }
+        long elapsed = System.nanoTime() - t0;
+        sink += sum;
+        return (double) elapsed / ((long) LOOKUP_ROUNDS * ids.length);
+    }
+
+    /** findRequestById sebelum registry: scan list dari depan */
+    private static double timeScan(List<ChatRequest> list, int[] ids) {
+        long sum = 0;
+        int lookups = Math.min(SCAN_LOOKUPS, ids.length);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            for (ChatRequest r : list) {
+                if (r.getRequestId() == ids[i]) {
+                    sum += r.getRequestId();
+                    break;
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - t0;
+        sink += sum;
+        return (double) elapsed / lookups;
+    }
+}
@@ -0,0 +1,203 @@
+package gateway;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import main.HeadlessEngine;
+import service.LatencyHistogram;
+
+/**
+ * GatewayLoadTest - Ukur throughput & latensi ChatGateway lewat loopback
+ *
+ * Engine headless (seller otomatis) + gateway di 127.0.0.1 port bebas.
+ * Tiap client thread membuka sesi buyer sendiri (/buyer/session), lalu
+ * bergantian kirim /buyer/message dan /buyer/choose untuk request-nya
+ * sampai durasi habis. Latensi tiap HTTP request (kirim sampai body
+ * terbaca, keep-alive) dicatat di LatencyHistogram; hasilnya requests/sec
+ * dan p50/p99/p999 per endpoint.
+ *
+ * Sebelumnya dicek sekali bahwa Choose atas request sesi lain ditolak 404.
+ *
+ * Jalankan: java -cp bin;test-bin gateway.GatewayLoadTest [client] [detik] [seller]
+ * Exit code 1 kalau ada request yang gagal (status bukan 200) atau Choose
+ * lintas sesi tidak ditolak.
+ */
+public class GatewayLoadTest {
+
+    private static final String[] MESSAGES = {
+        "Mau pesan rendang 2 porsi", "Ada nasi padang?", "Es teh manis 3 gelas dong",
+        "Ayam pop masih ada?", "Minta sambal ijo extra", "Jus alpukat 1 ya"
+    };
+
+    private static final Pattern SESSION    = Pattern.compile("\"session\":\"([^\"]+)\"");
+    private static final Pattern TOKEN      = Pattern.compile("\"token\":\"([^\"]+)\"");
+    private static final Pattern REQUEST_ID = Pattern.compile("\"requestId\":(\\d+)");
+
+    private static final long IDLE_TIMEOUT_MILLIS = 60_000;
+
+    private static final LatencyHistogram messageLatency = new LatencyHistogram("buyer_message");
+    private static final LatencyHistogram chooseLatency  = new LatencyHistogram("buyer_choose");
+    private static final AtomicLong failures = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int sellers = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        HeadlessEngine engine  = new HeadlessEngine(sellers);
+        ChatGateway    gateway = new ChatGateway(engine.getController(), engine::execute,
+                InetAddress.getLoopbackAddress(), 0);
+        gateway.start();
+        String base = "http://127.0.0.1:" + gateway.getPort();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            // Warm-up JIT (server dan client), lalu histogram dikosongkan
+            runClients(pool, base, clients, TimeUnit.SECONDS.toNanos(Math.max(1, seconds / 5)));
+            engine.awaitIdle(IDLE_TIMEOUT_MILLIS);
+            messageLatency.reset();
+            chooseLatency.reset();
+            failures.set(0);
+
+            int status = foreignChooseStatus(base);
+            if (status != 404) {
+                System.err.println("[GatewayLoadTest] Choose request sesi lain -> " + status + ", harusnya 404");
+                failures.incrementAndGet();
+            }
+
+            long t0 = System.nanoTime();
+            long requests = runClients(pool, base, clients, TimeUnit.SECONDS.toNanos(seconds));
+            double elapsed = (System.nanoTime() - t0) / 1e9;
+
+            System.out.println(String.format("[GatewayLoadTest] %d client, %d seller, %.1f s: %d request,"
+                    + " %.0f req/s, %d gagal", clients, sellers, elapsed, requests, requests / elapsed, failures.get()));
+            print(messageLatency);
+            print(chooseLatency);
+
+            // Seller otomatis masih menjawab antrean; tunggu supaya shutdown tidak menolak task AI
+            if (!engine.awaitIdle(IDLE_TIMEOUT_MILLIS)) System.err.println("[GatewayLoadTest] Timeout menunggu engine idle");
+        } finally {
+            pool.shutdownNow();
+            gateway.stop();
+            engine.shutdown();
+        }
+        if (failures.get() > 0) System.exit(1);
+    }
+
+    /** @return jumlah HTTP request yang selesai */
+    private static long runClients(ExecutorService pool, String base, int clients, long durationNanos)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> workers = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            final int client = c;
+            workers.add(pool.submit(() -> {
+                String created = post(base + "/buyer/session", "", null);
+                String auth = "session=" + encode(group(SESSION, created)) + "&token=" + encode(group(TOKEN, created));
+                start.await();
+                long deadline = System.nanoTime() + durationNanos;
+                long done = 0;
+                for (int i = client; System.nanoTime() < deadline; i++) {
+                    String message = MESSAGES[i % MESSAGES.length];
+                    String sent = post(base + "/buyer/message", auth + "&text=" + encode(message), messageLatency);
+                    done++;
+                    if (sent == null) continue;
+                    post(base + "/buyer/choose", auth + "&requestId=" + group(REQUEST_ID, sent)
+                            + "&form=" + (1 + i % 3) + "&message=" + encode(message) + "&qty=1&price=25000",
+                            chooseLatency);
+                    done++;
+                }
+                return done;
+            }));
+        }
+        start.countDown();
+        long total = 0;
+        for (Future<Long> w : workers) total += w.get(durationNanos / 1_000_000 + 60_000, TimeUnit.MILLISECONDS);
+        return total;
+    }
+
+    /** Sesi B memilih balasan untuk request milik sesi A; @return status HTTP-nya */
+    private static int foreignChooseStatus(String base) throws IOException {
+        String a = post(base + "/buyer/session", "", null);
+        String b = post(base + "/buyer/session", "", null);
+        String sent = post(base + "/buyer/message", "session=" + encode(group(SESSION, a)) + "&token="
+                + encode(group(TOKEN, a)) + "&text=" + encode(MESSAGES[0]), null);
+        HttpURLConnection conn = (HttpURLConnection) new URL(base + "/buyer/choose").openConnection();
+        conn.setRequestMethod("POST");
+        conn.setDoOutput(true);
+        try (OutputStream out = conn.getOutputStream()) {
+            out.write(("session=" + encode(group(SESSION, b)) + "&token=" + encode(group(TOKEN, b))
+                    + "&requestId=" + group(REQUEST_ID, sent) + "&form=1&message=x").getBytes(StandardCharsets.UTF_8));
+        }
+        int status = conn.getResponseCode();
+        try (InputStream in = status == 200 ? conn.getInputStream() : conn.getErrorStream()) {
+            if (in != null) readAll(in);
+        }
+        return status;
+    }
+
+    /** @return body respons, atau null kalau status bukan 200 (dihitung sebagai gagal) */
+    private static String post(String url, String form, LatencyHistogram latency) throws IOException {
+        byte[] body = form.getBytes(StandardCharsets.UTF_8);
+        long t0 = System.nanoTime();
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setRequestMethod("POST");
+        conn.setDoOutput(true);
+        conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream out = conn.getOutputStream()) {
+            out.write(body);
+        }
+        int status = conn.getResponseCode();
+        // Body dibaca habis supaya koneksi keep-alive bisa dipakai ulang
+        String response;
+        try (InputStream in = status == 200 ? conn.getInputStream() : conn.getErrorStream()) {
+            response = in == null ? "" : readAll(in);
+        }
+        if (latency != null) latency.recordSince(t0);
+        if (status == 200) return response;
+        if (failures.getAndIncrement() < 10) {
+            System.err.println("[GatewayLoadTest] " + url + " -> " + status + " " + response);
+        }
+        return null;
+    }
+
+    private static void print(LatencyHistogram h) {
+        LatencyHistogram.Snapshot s = h.snapshot();
+        System.out.println(String.format("  %-14s %8d request  p50 %6d us  p99 %6d us  p999 %6d us  max %6d us",
+                h.getName(), s.getCount(), s.valueAt(50), s.valueAt(99), s.valueAt(99.9), s.getMax()));
+    }
+
+    private static String group(Pattern p, String json) {
+        Matcher m = p.matcher(json == null ? "" : json);
+        if (!m.find()) throw new IllegalStateException("respons tidak berisi " + p.pattern() + ": " + json);
+        return m.group(1);
+    }
+
+    private static String encode(String s) throws IOException {
+        return URLEncoder.encode(s, "UTF-8");
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        byte[] chunk = new byte[1024];
+        int n;
+        while ((n = in.read(chunk)) > 0) buf.write(chunk, 0, n);
+        return new String(buf.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * StockStressTest - Uji stok lock-free Product dengan banyak thread
+ *
+ * Tiap ronde: satu Product dengan stok awal tetap, N thread dilepas
+ * bersamaan lewat CountDownLatch dan mencampur reserve / commit / release
+ * / deductStock. Setelah semua selesai dicek:
+ *   - stok tidak pernah negatif (juga dicek di tengah jalan)
+ *   - tidak ada reservasi yang tertinggal
+ *   - stok sisa + terjual == stok awal (tidak ada oversell / stok hilang)
+ *
+ * Jalankan: java -cp bin;test-bin model.StockStressTest [ronde] [thread]
+ * Exit code 1 kalau ada ronde yang gagal.
+ */
+public class StockStressTest {
+
+    private static final int INITIAL_STOCK  = 1_000;
+    private static final int OPS_PER_THREAD = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        int rounds  = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int failures = 0;
+        long t0 = System.nanoTime();
+        try {
+            for (int round = 0; round < rounds; round++) {
+                String error = runRound(pool, threads);
+                if (error != null) {
+                    failures++;
+                    System.err.println("[StockStressTest] Ronde " + round + " gagal: " + error);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long millis = (System.nanoTime() - t0) / 1_000_000;
+        System.out.println("[StockStressTest] " + rounds + " ronde x " + threads + " thread x "
+                + OPS_PER_THREAD + " operasi dalam " + millis + " ms, " + failures + " gagal");
+        if (failures > 0) System.exit(1);
+    }
+
+    /** @return null kalau semua invariant terpenuhi, selain itu pesan kegagalan */
+    private static String runRound(ExecutorService pool, int threads) throws Exception {
+        Product product = new Product("Rendang", Money.of(25_000), INITIAL_STOCK);
+        AtomicInteger sold     = new AtomicInteger();
+        AtomicInteger negative = new AtomicInteger();
+        CountDownLatch start   = new CountDownLatch(1);
+
+        List<Future<?>> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    int qty = 1 + (i + seed) % 3;
+                    switch ((i + seed) % 4) {
+                        case 0:   // pesanan dibatalkan
+                            if (product.reserve(qty)) product.release(qty);
+                            break;
+                        case 1:   // langsung beli
+                            if (product.deductStock(qty)) sold.addAndGet(qty);
+                            break;
+                        default:  // reserve lalu konfirmasi
+                            if (product.reserve(qty)) {
+                                product.commit(qty);
+                                sold.addAndGet(qty);
+                            }
+                            break;
+                    }
+                    if (product.getStock() < 0) negative.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> w : workers) w.get(1, TimeUnit.MINUTES);
+
+        if (negative.get() > 0)      return "stok sempat negatif " + negative.get() + "x";
+        if (product.getStock() < 0)  return "stok akhir negatif: " + product.getStock();
+        if (product.getReserved() != 0) return "reservasi tertinggal: " + product.getReserved();
+        if (product.getStock() + sold.get() != INITIAL_STOCK) {
+            return "stok " + product.getStock() + " + terjual " + sold.get() + " != " + INITIAL_STOCK;
+        }
+        return null;
+    }
+}
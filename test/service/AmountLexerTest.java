@@ -0,0 +1,156 @@
+package service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * AmountLexerTest - Uji AmountLexer terhadap kasus tetap dan regex lama
+ *
+ * Bagian pertama: tabel format yang harus dikenali (Rp / rp. / k / rb /
+ * ribu / $) plus kasus tepi (tanpa angka, prioritas, angka terlalu besar).
+ * Bagian kedua: string acak dari potongan token yang sama, hasilnya harus
+ * persis sama dengan regex yang dulu dipakai Bubble dan SellerAIService.
+ * Angka hasil regex dibaca sebagai BigDecimal (bukan double seperti kode
+ * lama), jadi pembulatan ke minor unit dibandingkan secara pasti.
+ *
+ * Jalankan: java -cp bin;test-bin service.AmountLexerTest [jumlah-string-acak] [seed]
+ * Exit code 1 kalau ada kasus yang gagal.
+ */
+public class AmountLexerTest {
+
+    // Regex lama (Bubble.extractPrice / SellerAIService.extractQuantity) sebagai acuan
+    private static final Pattern RUPIAH   = Pattern.compile("(?i)rp\\.?\\s*([\\d.,]+)");
+    private static final Pattern THOUSAND = Pattern.compile("(\\d+(?:[.,]\\d+)?)\\s*(?:k|rb|ribu)");
+    private static final Pattern DOLLAR   = Pattern.compile("\\$\\s*([\\d,]+\\.?\\d*)");
+    private static final Pattern DIGITS   = Pattern.compile("\\d+");
+
+    private static final String[] TOKENS = {
+        "rp", "Rp", "RP", "r", "p", ".", " ", ",", "$", "k", "K", "rb", "ribu", "Rb", "ri", "bu",
+        "0", "1", "2", "5", "9", "15", "000", "x", "\t", "kg"
+    };
+
+    // Di atas ini lexer menolak angkanya (MAX_MANTISSA, 15 digit); tidak dibandingkan
+    private static final BigDecimal LIMIT_UNITS = new BigDecimal("1e13");
+
+    private static final int MAX_REPORTED = 20;
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        int  randomCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        long seed        = args.length > 1 ? Long.parseLong(args[1]) : 7;
+
+        fixedCases();
+        int fixedFailures = failures;
+        randomCases(randomCount, seed);
+
+        System.out.println("[AmountLexerTest] kasus tetap: " + fixedFailures + " gagal; "
+                + randomCount + " string acak (seed " + seed + "): " + (failures - fixedFailures) + " beda dari regex");
+        if (failures > 0) System.exit(1);
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Kasus tetap
+    // ──────────────────────────────────────────────────────────
+    private static void fixedCases() {
+        quantity("2 rendang", 2);
+        quantity("mau pesan 12 porsi, 3 es teh", 12);
+        quantity("rendang dong", 1);
+        quantity("", 1);
+        quantity("0 porsi", 0);
+        quantity("99999999999 porsi", 1);           // lewat batas int -> default
+
+        price("Rp 15.000", 15_000_00);
+        price("harganya rp.15,000 saja", 15_000_00);
+        price("Rp15000", 15_000_00);
+        price("RP 2.500", 2_500_00);
+        price("15k", 15_000_00);
+        price("1,5 rb", 1_500_00);
+        price("1.5k", 1_500_00);
+        price("20 ribu", 20_000_00);
+        price("$5.00", 5_00);
+        price("$ 1,250.5", 1_250_50);
+        price("tidak ada harga", 0);
+        price("rp saja", 0);                        // Rp tanpa angka -> lanjut ke format lain
+        price("rp, 10k", 10_000_00);
+        price("10k atau Rp 9.000", 9_000_00);       // Rp menang walau muncul belakangan
+        price("$3 atau 2rb", 2_000_00);             // k/rb/ribu sebelum $
+        price("Rp 1.000.000.000.000.000.000", 0);   // di atas MAX_MANTISSA
+        price(null, 0);
+    }
+
+    private static void quantity(String input, int expected) {
+        check("qty", input, expected, AmountLexer.parseQuantity(input, 1));
+    }
+
+    private static void price(String input, long expectedMinor) {
+        check("price", input, expectedMinor, AmountLexer.parsePriceMinor(input));
+    }
+
+    // ──────────────────────────────────────────────────────────
+    //  Perbandingan acak dengan regex lama
+    // ──────────────────────────────────────────────────────────
+    private static void randomCases(int count, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(64);
+        for (int n = 0; n < count; n++) {
+            sb.setLength(0);
+            int tokens = random.nextInt(9);
+            for (int t = 0; t < tokens; t++) sb.append(TOKENS[random.nextInt(TOKENS.length)]);
+            String s = sb.toString();
+
+            BigDecimal reference = regexPrice(s);
+            if (reference.compareTo(LIMIT_UNITS) < 0) {
+                long expectedMinor = reference.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+                check("price", s, expectedMinor, AmountLexer.parsePriceMinor(s));
+            }
+            check("qty", s, regexQuantity(s), AmountLexer.parseQuantity(s, 1));
+        }
+    }
+
+    private static BigDecimal regexPrice(String message) {
+        String m = message.toLowerCase();
+        Matcher rp = RUPIAH.matcher(m);
+        if (rp.find()) {
+            try {
+                return new BigDecimal(rp.group(1).replace(".", "").replace(",", ""));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        Matcher k = THOUSAND.matcher(m);
+        if (k.find()) {
+            try {
+                return new BigDecimal(k.group(1).replace(",", ".")).movePointRight(3);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        Matcher d = DOLLAR.matcher(m);
+        if (d.find()) {
+            try {
+                return new BigDecimal(d.group(1).replace(",", ""));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static int regexQuantity(String message) {
+        Matcher m = DIGITS.matcher(message);
+        if (!m.find()) return 1;
+        try {
+            return Integer.parseInt(m.group());
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private static void check(String what, String input, long expected, long actual) {
+        if (expected == actual) return;
+        if (failures++ < MAX_REPORTED) {
+            System.err.println("[AmountLexerTest] " + what + " \"" + input + "\": harap " + expected + ", dapat " + actual);
+        }
+    }
+}
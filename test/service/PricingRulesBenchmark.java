@@ -0,0 +1,157 @@
+package service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * PricingRulesBenchmark - Latensi evaluasi promo vs jumlah rule
+ *
+ * Untuk tiap jumlah rule dibuat file rule acak di direktori temp (intent,
+ * min_qty, produk, diskon acak), di-load lewat PricingRules, lalu diukur:
+ *   compile  waktu load + compile tabel keputusan
+ *   table    ns per evaluate() (lookup tabel, yang dipakai SellerAIService)
+ *   linear   ns per scan semua rule urut prioritas (cara if/else lama)
+ * Hasil tabel dan scan linear juga dibandingkan untuk setiap penawaran;
+ * kalau ada yang beda, exit code 1.
+ *
+ * Jalankan: java -cp bin;test-bin service.PricingRulesBenchmark [evaluasi-per-ukuran]
+ */
+public class PricingRulesBenchmark {
+
+    private static final int[] RULE_COUNTS = { 3, 10, 50, 100, 500, 1000 };
+
+    private static final String[] INTENTS = {
+        "spicy", "sweet", "mild", "heavy_meal", "light", "hungry", "refreshing", "budget", "premium"
+    };
+    private static final String[] PRODUCTS = {
+        "nasi padang", "ayam pop", "rendang", "gulai cincang", "sambal ijo",
+        "es teh manis", "es jeruk", "jus alpukat", "es campur", "kolak pisang"
+    };
+
+    private static final int OFFERS = 4096; // penawaran acak yang diputar berulang (pangkat 2)
+
+    // Penawaran acak: intent mask, produk, quantity
+    private static final int[]    offerIntent  = new int[OFFERS];
+    private static final String[] offerProduct = new String[OFFERS];
+    private static final int[]    offerQty     = new int[OFFERS];
+
+    private static long sink; // supaya JIT tidak membuang hasil evaluasi
+
+    public static void main(String[] args) throws IOException {
+        int evaluations = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+
+        Random random = new Random(42);
+        for (int i = 0; i < OFFERS; i++) {
+            offerIntent[i]  = random.nextInt(1 << INTENTS.length);
+            offerProduct[i] = PRODUCTS[random.nextInt(PRODUCTS.length)];
+            offerQty[i]     = 1 + random.nextInt(12);
+        }
+
+        Path dir = Files.createTempDirectory("pricing-rules-bench");
+        int mismatches = 0;
+        try {
+            System.out.println(String.format("%8s %12s %12s %12s", "rules", "compile_ms", "table_ns", "linear_ns"));
+            for (int count : RULE_COUNTS) {
+                Path file = dir.resolve("rules-" + count + ".txt");
+                Files.write(file, generateRules(count, random).getBytes(StandardCharsets.UTF_8));
+
+                long t0 = System.nanoTime();
+                PricingRules rules = new PricingRules(file);
+                double compileMillis = (System.nanoTime() - t0) / 1e6;
+                Files.delete(file); // rule sudah di-compile; reloadIfChanged tidak dipanggil lagi
+                if (rules.getRules().size() != count) {
+                    throw new IllegalStateException("rule ter-load " + rules.getRules().size() + " != " + count);
+                }
+
+                mismatches += verify(rules);
+                List<PricingRule> sorted = rules.getRules();
+                timeTable(rules, evaluations / 4);     // warm-up JIT
+                timeLinear(sorted, evaluations / 40);
+                double tableNs  = timeTable(rules, evaluations);
+                double linearNs = timeLinear(sorted, evaluations / 10); // scan 1000 rule jauh lebih lambat
+
+                System.out.println(String.format("%8d %12.1f %12.1f %12.1f", count, compileMillis, tableNs, linearNs));
+            }
+        } finally {
+            Files.deleteIfExists(dir);
+        }
+
+        System.out.println("[PricingRulesBenchmark] " + mismatches + " penawaran beda antara tabel dan scan linear"
+                + " (checksum " + sink + ")");
+        if (mismatches > 0) System.exit(1);
+    }
+
+    /** Baris rule acak dengan format pricing-rules.txt */
+    private static String generateRules(int count, Random random) {
+        StringBuilder sb = new StringBuilder(count * 64);
+        sb.append("# name | priority | when | min_qty | product | discount_% | note\n");
+        for (int i = 0; i < count; i++) {
+            String when;
+            switch (random.nextInt(3)) {
+                case 0:  when = "-"; break;
+                case 1:  when = INTENTS[random.nextInt(INTENTS.length)]; break;
+                default: when = INTENTS[random.nextInt(INTENTS.length)] + "+" + INTENTS[random.nextInt(INTENTS.length)];
+            }
+            String product = random.nextInt(3) == 0 ? "*" : PRODUCTS[random.nextInt(PRODUCTS.length)];
+            sb.append("rule-").append(i).append(" | ")
+              .append(random.nextInt(count * 2)).append(" | ")
+              .append(when).append(" | ")
+              .append(random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(20)).append(" | ")
+              .append(product).append(" | ")
+              .append(random.nextInt(31)).append(" | ")
+              .append("Promo ").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /** @return jumlah penawaran yang hasil tabelnya beda dari scan linear */
+    private static int verify(PricingRules rules) {
+        int mismatches = 0;
+        for (int i = 0; i < OFFERS; i++) {
+            PricingRule expected = linear(rules.getRules(), offerIntent[i], offerProduct[i], offerQty[i]);
+            PricingRule actual   = rules.evaluate(offerIntent[i], offerProduct[i], offerQty[i]);
+            if (expected != actual) mismatches++;
+        }
+        return mismatches;
+    }
+
+    private static double timeTable(PricingRules rules, int n) {
+        long hits = 0;
+        long t0 = System.nanoTime();
+        for (int k = 0; k < n; k++) {
+            int i = k & (OFFERS - 1);
+            if (rules.evaluate(offerIntent[i], offerProduct[i], offerQty[i]) != null) hits++;
+        }
+        long elapsed = System.nanoTime() - t0;
+        sink += hits;
+        return (double) elapsed / n;
+    }
+
+    private static double timeLinear(List<PricingRule> sorted, int n) {
+        long hits = 0;
+        long t0 = System.nanoTime();
+        for (int k = 0; k < n; k++) {
+            int i = k & (OFFERS - 1);
+            if (linear(sorted, offerIntent[i], offerProduct[i], offerQty[i]) != null) hits++;
+        }
+        long elapsed = System.nanoTime() - t0;
+        sink += hits;
+        return (double) elapsed / n;
+    }
+
+    /** Rule pertama (urut prioritas) yang berlaku, seperti rantai if/else sebelum tabel keputusan */
+    private static PricingRule linear(List<PricingRule> sorted, int intent, String product, int qty) {
+        for (PricingRule r : sorted) {
+            if ((intent & r.getRequiredIntent()) == r.getRequiredIntent()
+                    && qty >= r.getMinQuantity()
+                    && (r.getProduct() == null || r.getProduct().equals(product))) {
+                return r;
+            }
+        }
+        return null;
+    }
+}